@@ -0,0 +1,30 @@
+#!/usr/bin/env bash
+# Builds the AOT-processed jar, unpacks it and records an AppCDS archive from a training
+# run that exits once the application context has refreshed.
+#
+# Usage: scripts/build-cds.sh
+# The training run starts the real context, so the database configured for the active
+# profile (SPRING_PROFILES_ACTIVE, ORACLE_URL, ...) must be reachable. Without Oracle:
+#   MAVEN_PROFILES=local SPRING_PROFILES_ACTIVE=local scripts/build-cds.sh
+set -euo pipefail
+
+OUT=target/cds
+mvn -B -q -Paot${MAVEN_PROFILES:+,$MAVEN_PROFILES} package -DskipTests
+JAR=$(ls target/api-*.jar | grep -v plain | head -n 1)
+
+rm -rf "$OUT" && mkdir -p "$OUT/app"
+(cd "$OUT/app" && jar -xf "../../../$JAR")
+
+# CDS needs a plain classpath of jars (directories are rejected), so the application classes
+# are repacked and the main class is launched directly rather than via the nested jar
+jar -cf "$OUT/app-classes.jar" -C "$OUT/app/BOOT-INF/classes" .
+CLASSPATH="$OUT/app-classes.jar:$(ls "$OUT"/app/BOOT-INF/lib/*.jar | tr '\n' ':')"
+echo "$CLASSPATH" > "$OUT/classpath"
+
+java -XX:ArchiveClassesAtExit="$OUT/app.jsa" \
+    -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh \
+    -cp "$CLASSPATH" com.urbanfood.api.UrbanFoodApplication > "$OUT/training.log" 2>&1
+
+echo "CDS archive written to $OUT/app.jsa; run with:"
+echo "  java -XX:SharedArchiveFile=$OUT/app.jsa -Dspring.aot.enabled=true -cp \"\$(cat $OUT/classpath)\" com.urbanfood.api.UrbanFoodApplication"
@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Compares request throughput with platform threads vs virtual threads.
+#
+# Usage: scripts/load-test.sh [product-id] [concurrency] [requests]
+# Requires Java 21+ for the virtual-thread run and the 'hey' load generator on the PATH.
+set -euo pipefail
+
+PRODUCT_ID=${1:-1}
+CONCURRENCY=${2:-200}
+REQUESTS=${3:-20000}
+PORT=${PORT:-8081}
+BASE_URL="http://localhost:${PORT}/api/api/products"
+JAR=$(ls target/api-*.jar | head -n 1)
+
+run() {
+    local mode=$1
+    echo "=== ${mode}: starting application"
+    VIRTUAL_THREADS_ENABLED=$([ "$mode" = "virtual" ] && echo true || echo false) \
+        java -jar "$JAR" --server.port="$PORT" > "target/load-test-${mode}.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null || true' RETURN
+
+    until curl -sf "${BASE_URL}/${PRODUCT_ID}" > /dev/null; do sleep 1; done
+
+    # Warm up, then measure the detail endpoint, which fans out to Oracle and Mongo
+    hey -n 2000 -c "$CONCURRENCY" "${BASE_URL}/${PRODUCT_ID}" > /dev/null
+    echo "=== ${mode}: GET /products/${PRODUCT_ID} (c=${CONCURRENCY}, n=${REQUESTS})"
+    hey -n "$REQUESTS" -c "$CONCURRENCY" "${BASE_URL}/${PRODUCT_ID}" | grep -E "Requests/sec|Average|99%|\[2|\[5"
+    echo "=== ${mode}: live threads: $(ps -o nlwp= -p $pid)"
+}
+
+run platform
+run virtual
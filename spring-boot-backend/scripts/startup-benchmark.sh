@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request (process launch until GET /categories answers) for the
+# old startup configuration and for each startup optimisation.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+# Run scripts/build-cds.sh first; it leaves the AOT jar and the CDS archive in target/.
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8081}
+URL="http://localhost:${PORT}/api/api/categories"
+OUT=target/cds
+CLASSPATH=$(cat "$OUT/classpath")
+MAIN=com.urbanfood.api.UrbanFoodApplication
+
+# The configuration before migrations: schema introspection on boot and every query logged
+LEGACY_ARGS="--spring.jpa.hibernate.ddl-auto=update --spring.jpa.show-sql=true --spring.flyway.enabled=false"
+
+measure() {
+    local name=$1
+    shift
+    local total=0
+    for run in $(seq "$RUNS"); do
+        local start
+        start=$(date +%s%N)
+        "$@" --server.port="$PORT" > "target/startup-${name}.log" 2>&1 &
+        local pid=$!
+        until curl -sf -o /dev/null "$URL"; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "${name}: application exited, see target/startup-${name}.log" >&2
+                return 1
+            fi
+            sleep 0.05
+        done
+        local elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+        total=$((total + elapsed))
+        kill "$pid" && wait "$pid" 2>/dev/null || true
+    done
+    printf '%-12s %6d ms (mean of %d)\n' "$name" $((total / RUNS)) "$RUNS"
+}
+
+# shellcheck disable=SC2086
+measure legacy   java -cp "$CLASSPATH" "$MAIN" $LEGACY_ARGS
+measure flyway   java -cp "$CLASSPATH" "$MAIN"
+measure aot      java -Dspring.aot.enabled=true -cp "$CLASSPATH" "$MAIN"
+measure cds      java -XX:SharedArchiveFile="$OUT/app.jsa" -cp "$CLASSPATH" "$MAIN"
+measure aot+cds  java -XX:SharedArchiveFile="$OUT/app.jsa" -Dspring.aot.enabled=true -cp "$CLASSPATH" "$MAIN"
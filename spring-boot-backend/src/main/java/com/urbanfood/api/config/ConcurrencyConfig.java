@@ -0,0 +1,85 @@
+package com.urbanfood.api.config;
+
+import com.urbanfood.api.services.FanOut;
+import com.urbanfood.api.services.querystats.QueryStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for work fanned out from request threads. When spring.threads.virtual.enabled
+ * is set and the JVM supports it (Java 21+), Boot runs Tomcat requests on virtual threads
+ * and lookups are forked onto virtual threads as well; otherwise a bounded platform pool is used.
+ */
+@Configuration
+public class ConcurrencyConfig {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyConfig.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${app.fanout.pool-size:32}")
+    private int poolSize;
+
+    @Value("${app.fanout.queue-capacity:0}")
+    private int queueCapacity;
+
+    @Value("${app.fanout.deadline-ms:2000}")
+    private long deadlineMs;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService lookupExecutor() {
+        if (virtualThreadsEnabled && Runtime.version().feature() >= 21) {
+            try {
+                // Looked up reflectively so the code still compiles for the Java 17 target
+                ExecutorService executor = (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null);
+                logger.info("Fan-out lookups run on virtual threads");
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Virtual threads requested but unavailable, using a bounded pool: {}", e.getMessage());
+            }
+        }
+
+        return boundedLookupPool(poolSize, queueCapacity);
+    }
+
+    /**
+     * Caller-runs keeps the request moving (sequentially) when the pool is saturated. With no
+     * queue that happens as soon as every pool thread is busy; a queue in front of a pool
+     * smaller than Tomcat's would cap throughput at what the pool alone can do.
+     */
+    static ExecutorService boundedLookupPool(int poolSize, int queueCapacity) {
+        return new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>(),
+                namedThreads("lookup-"), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Bean
+    public FanOut fanOut(ExecutorService lookupExecutor, QueryStatsService queryStatsService) {
+        // Statements run by a lookup count against the request that forked it
+        return new FanOut(lookupExecutor, Duration.ofMillis(deadlineMs), queryStatsService::propagate);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.urbanfood.api.config;
+
+import com.urbanfood.api.filters.QueryStatsFilter;
+import com.urbanfood.api.services.querystats.QueryStatsService;
+import com.urbanfood.api.services.querystats.QueryStatsSessionListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Hooks {@link QueryStatsService} into Hibernate and the servlet chain when
+ * app.hibernate.statistics.enabled is set; with the flag off nothing is registered and
+ * statements carry no extra work.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.hibernate.statistics.enabled", havingValue = "true")
+public class QueryStatsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryStatsHibernateCustomizer(QueryStatsService queryStatsService) {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryStatsService);
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryStatsSessionListener.class.getName());
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter(QueryStatsService queryStatsService) {
+        FilterRegistrationBean<QueryStatsFilter> registration =
+                new FilterRegistrationBean<>(new QueryStatsFilter(queryStatsService));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
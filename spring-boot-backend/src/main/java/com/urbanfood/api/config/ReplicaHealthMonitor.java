@@ -0,0 +1,73 @@
+package com.urbanfood.api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Periodically checks that the replica is reachable and, when a lag query is
+ * configured, that it is within the tolerated replication lag.
+ */
+public class ReplicaHealthMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagMs;
+
+    private volatile boolean usable = true;
+    private volatile long lastLagMs = 0;
+
+    public ReplicaHealthMonitor(DataSource replica, String lagQuery, long maxLagMs) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    public long getLastLagMs() {
+        return lastLagMs;
+    }
+
+    void markUnavailable() {
+        usable = false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:5000}")
+    public void check() {
+        boolean healthy;
+        try (Connection connection = replica.getConnection()) {
+            healthy = connection.isValid(2);
+            if (healthy && StringUtils.hasText(lagQuery)) {
+                // The lag query must return a single numeric column: replication lag in milliseconds
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    lastLagMs = resultSet.next() ? resultSet.getLong(1) : Long.MAX_VALUE;
+                }
+                healthy = lastLagMs <= maxLagMs;
+            }
+        } catch (Exception e) {
+            logger.debug("Replica health check failed: {}", e.getMessage());
+            healthy = false;
+        }
+
+        if (healthy != usable) {
+            if (healthy) {
+                logger.info("Replica is healthy again, routing read-only transactions to it");
+            } else {
+                logger.warn("Replica unavailable or lagging ({} ms, max {} ms), routing reads to primary",
+                        lastLagMs, maxLagMs);
+            }
+        }
+        usable = healthy;
+    }
+}
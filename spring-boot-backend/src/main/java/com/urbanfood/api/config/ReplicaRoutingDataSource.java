@@ -0,0 +1,64 @@
+package com.urbanfood.api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Routes read-only transactions to the replica pool and everything else to the primary.
+ * Must be wrapped in a LazyConnectionDataSourceProxy so the read-only flag is already
+ * bound when the physical connection is requested.
+ * <p>
+ * Spring Data's inherited finders (findById, findAll, ...) are read-only and so go to the
+ * replica unless they join a read-write transaction. Code that reloads state right after
+ * a write, such as after-commit cache listeners, must open a read-write transaction to be
+ * sure of seeing it.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final DataSource primary;
+    private final ReplicaHealthMonitor healthMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaHealthMonitor healthMonitor) {
+        this.primary = primary;
+        this.healthMonitor = healthMonitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && healthMonitor.isReplicaUsable()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object route = determineCurrentLookupKey();
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            if (route != Route.REPLICA) {
+                throw e;
+            }
+            logger.warn("Replica connection failed, falling back to primary: {}", e.getMessage());
+            healthMonitor.markUnavailable();
+            return primary.getConnection();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.urbanfood.api.controllers;
+
+import com.urbanfood.api.dto.DailySalesDto;
+import com.urbanfood.api.dto.MessageResponse;
+import com.urbanfood.api.services.OrderItemColumnStore;
+import com.urbanfood.api.services.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private static final long MAX_RANGE_DAYS = 366;
+    private static final int MAX_GROUPS = 10_000;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OrderItemColumnStore orderItemColumnStore;
+
+    @GetMapping("/farmers/{farmerId}/daily")
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('FARMER') and #farmerId == authentication.principal.id)")
+    public ResponseEntity<?> getFarmerDailySales(
+            @PathVariable Long farmerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ResponseEntity<?> invalid = validateRange(from, to);
+        if (invalid != null) {
+            return invalid;
+        }
+        List<DailySalesDto> sales = salesRollupService.getFarmerDailySales(farmerId, from, to);
+        return ResponseEntity.ok(sales);
+    }
+
+    @GetMapping("/farmers/{farmerId}/products")
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('FARMER') and #farmerId == authentication.principal.id)")
+    public ResponseEntity<?> getFarmerProductSales(
+            @PathVariable Long farmerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ResponseEntity<?> invalid = validateRange(from, to);
+        if (invalid != null) {
+            return invalid;
+        }
+        List<DailySalesDto> sales = salesRollupService.getFarmerProductDailySales(farmerId, from, to);
+        return ResponseEntity.ok(sales);
+    }
+
+    @GetMapping("/order-items")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> aggregateOrderItems(
+            @RequestParam(defaultValue = "NONE") String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long farmerId,
+            @RequestParam(required = false) Boolean organic,
+            @RequestParam(defaultValue = "100") int limit) {
+        OrderItemColumnStore.GroupBy grouping;
+        try {
+            grouping = OrderItemColumnStore.GroupBy.valueOf(groupBy.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Unknown groupBy '" + groupBy + "'!"));
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: 'to' must not be before 'from'!"));
+        }
+        if (limit < 1 || limit > MAX_GROUPS) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: limit must be between 1 and " + MAX_GROUPS + "!"));
+        }
+        if (!orderItemColumnStore.isLoaded()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new MessageResponse("Error: Order item store is still loading!"));
+        }
+        OrderItemColumnStore.Filter filter = new OrderItemColumnStore.Filter(from, to, categoryId, farmerId, organic);
+        return ResponseEntity.ok(orderItemColumnStore.aggregate(filter, grouping, limit));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildRollups() {
+        if (!salesRollupService.requestRebuild()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse("Error: A rollup rebuild is already queued or running!"));
+        }
+        return ResponseEntity.accepted().body(new MessageResponse("Rollup rebuild queued"));
+    }
+
+    private ResponseEntity<?> validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: 'to' must not be before 'from'!"));
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: Date range must not exceed " + MAX_RANGE_DAYS + " days!"));
+        }
+        return null;
+    }
+}
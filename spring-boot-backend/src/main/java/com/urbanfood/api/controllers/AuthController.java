@@ -4,6 +4,7 @@ import com.urbanfood.api.dto.MessageResponse;
 import com.urbanfood.api.dto.auth.JwtResponse;
 import com.urbanfood.api.dto.auth.LoginRequest;
 import com.urbanfood.api.dto.auth.SignupRequest;
+import com.urbanfood.api.events.UserRegisteredEvent;
 import com.urbanfood.api.models.oracle.ERole;
 import com.urbanfood.api.models.oracle.Role;
 import com.urbanfood.api.models.oracle.User;
@@ -11,8 +12,11 @@ import com.urbanfood.api.repositories.oracle.RoleRepository;
 import com.urbanfood.api.repositories.oracle.UserRepository;
 import com.urbanfood.api.security.jwt.JwtUtils;
 import com.urbanfood.api.security.services.UserDetailsImpl;
+import com.urbanfood.api.services.SignupFilterService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -45,6 +49,12 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    SignupFilterService signupFilterService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
@@ -69,13 +79,13 @@ public class AuthController {
 
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-        if (userRepository.existsByUsername(signUpRequest.getUsername())) {
+        if (signupFilterService.isUsernameTaken(signUpRequest.getUsername())) {
             return ResponseEntity
                     .badRequest()
                     .body(new MessageResponse("Error: Username is already taken!"));
         }
 
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
+        if (signupFilterService.isEmailTaken(signUpRequest.getEmail())) {
             return ResponseEntity
                     .badRequest()
                     .body(new MessageResponse("Error: Email is already in use!"));
@@ -127,7 +137,16 @@ public class AuthController {
         }
 
         user.setRoles(roles);
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent signup claimed the same username or email after the checks above
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Username or email is already in use!"));
+        }
+        eventPublisher.publishEvent(new UserRegisteredEvent(this, user.getId(), user.getUsername(), user.getEmail(),
+                Boolean.TRUE.equals(user.getIsFarmer()), user.getCity(), user.getZipCode()));
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
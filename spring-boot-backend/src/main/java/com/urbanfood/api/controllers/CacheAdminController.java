@@ -0,0 +1,45 @@
+package com.urbanfood.api.controllers;
+
+import com.urbanfood.api.dto.CacheRegionStatsDto;
+import com.urbanfood.api.services.SecondLevelCacheService;
+import com.urbanfood.api.services.SignupFilterService;
+import com.urbanfood.api.services.invalidation.InvalidationBus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@PreAuthorize("hasRole('ADMIN')")
+public class CacheAdminController {
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private SignupFilterService signupFilterService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheRegionStatsDto>> getCacheStatistics() {
+        return ResponseEntity.ok(secondLevelCacheService.getRegionStatistics());
+    }
+
+    @GetMapping("/invalidation")
+    public ResponseEntity<Map<String, Object>> getInvalidationStatistics() {
+        return ResponseEntity.ok(invalidationBus.getStats());
+    }
+
+    @GetMapping("/signup-filter")
+    public ResponseEntity<Map<String, Object>> getSignupFilterStatistics() {
+        return ResponseEntity.ok(signupFilterService.getStats());
+    }
+}
@@ -0,0 +1,77 @@
+package com.urbanfood.api.controllers;
+
+import com.urbanfood.api.dto.CartDto;
+import com.urbanfood.api.dto.CartItemRequest;
+import com.urbanfood.api.dto.CheckoutRequest;
+import com.urbanfood.api.dto.ErrorResponse;
+import com.urbanfood.api.dto.MessageResponse;
+import com.urbanfood.api.security.services.UserDetailsImpl;
+import com.urbanfood.api.services.CartService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cart")
+@PreAuthorize("isAuthenticated()")
+public class CartController {
+
+    @Autowired
+    private CartService cartService;
+
+    @GetMapping
+    public ResponseEntity<CartDto> getCart(@AuthenticationPrincipal UserDetailsImpl user) {
+        return ResponseEntity.ok(cartService.getCart(user.getId()));
+    }
+
+    @PostMapping("/items")
+    public ResponseEntity<?> addItem(@AuthenticationPrincipal UserDetailsImpl user,
+                                     @Valid @RequestBody CartItemRequest request) {
+        try {
+            return ResponseEntity.ok(cartService.addItem(user.getId(), request.getProductId(), request.getQuantity()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    @PutMapping("/items")
+    public ResponseEntity<?> setItem(@AuthenticationPrincipal UserDetailsImpl user,
+                                     @Valid @RequestBody CartItemRequest request) {
+        try {
+            return ResponseEntity.ok(cartService.setItem(user.getId(), request.getProductId(), request.getQuantity()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<CartDto> removeItem(@AuthenticationPrincipal UserDetailsImpl user,
+                                              @PathVariable Long productId) {
+        return ResponseEntity.ok(cartService.removeItem(user.getId(), productId));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clearCart(@AuthenticationPrincipal UserDetailsImpl user) {
+        cartService.clear(user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/checkout")
+    public ResponseEntity<?> checkout(@AuthenticationPrincipal UserDetailsImpl user,
+                                      @Valid @RequestBody CheckoutRequest request,
+                                      HttpServletRequest httpRequest) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(cartService.checkout(user.getId(), request));
+        } catch (CartService.CheckoutConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(HttpStatus.CONFLICT.value(),
+                    "Conflict", "Error: The cart could not be checked out", httpRequest.getRequestURI(), e.getConflicts()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.urbanfood.api.controllers;
 
 import com.urbanfood.api.dto.CategoryDto;
+import com.urbanfood.api.events.CatalogChangedEvent;
 import com.urbanfood.api.models.oracle.Category;
 import com.urbanfood.api.repositories.oracle.CategoryRepository;
+import com.urbanfood.api.services.CatalogSnapshotService;
+import com.urbanfood.api.services.OutboxService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,9 +25,27 @@ public class CategoryController {
 
     @Autowired
     private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     @GetMapping
-    public ResponseEntity<List<CategoryDto>> getAllCategories() {
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getAllCategories(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ResponseEntity<byte[]> snapshot = catalogSnapshotService.serve(
+                CatalogSnapshotService.ALL_CATEGORIES, acceptEncoding, ifNoneMatch);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
         List<Category> categories = categoryRepository.findAll();
         List<CategoryDto> categoryDtos = categories.stream()
                 .map(this::convertToDto)
@@ -31,6 +55,7 @@ public class CategoryController {
     }
     
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id) {
         return categoryRepository.findById(id)
                 .map(this::convertToDto)
@@ -43,6 +68,7 @@ public class CategoryController {
     public ResponseEntity<CategoryDto> createCategory(@Valid @RequestBody CategoryDto categoryDto) {
         Category category = convertToEntity(categoryDto);
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.category(this, savedCategory.getId()));
         
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToDto(savedCategory));
     }
@@ -57,6 +83,7 @@ public class CategoryController {
                     existingCategory.setIcon(categoryDto.getIcon());
                     
                     Category updatedCategory = categoryRepository.save(existingCategory);
+                    eventPublisher.publishEvent(CatalogChangedEvent.category(this, updatedCategory.getId()));
                     return ResponseEntity.ok(convertToDto(updatedCategory));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -64,10 +91,14 @@ public class CategoryController {
     
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     public ResponseEntity<Void> deleteCategory(@PathVariable Long id) {
         return categoryRepository.findById(id)
                 .map(category -> {
+                    // Products are removed with the category, so their reviews have to go too
+                    category.getProducts().forEach(product -> outboxService.productDeleted(product.getId()));
                     categoryRepository.delete(category);
+                    eventPublisher.publishEvent(CatalogChangedEvent.category(this, category.getId()));
                     return ResponseEntity.noContent().<Void>build();
                 })
                 .orElse(ResponseEntity.notFound().build());
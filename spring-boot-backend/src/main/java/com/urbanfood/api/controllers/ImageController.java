@@ -0,0 +1,208 @@
+package com.urbanfood.api.controllers;
+
+import com.urbanfood.api.dto.ImageUploadResponse;
+import com.urbanfood.api.dto.MessageResponse;
+import com.urbanfood.api.services.ImageStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/api/images")
+public class ImageController {
+    private static final Logger logger = LoggerFactory.getLogger(ImageController.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("([0-9a-f]{64})\\.([a-z]{3,4})");
+
+    // Stored files never change, so clients may keep them as long as they like
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String PROVISIONAL = "public, max-age=60";
+
+    // Lets Tomcat's NIO connector hand the file to the kernel with sendfile
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('FARMER', 'ADMIN')")
+    public ResponseEntity<?> uploadImage(@RequestParam("file") MultipartFile file, HttpServletRequest request) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: The uploaded file is empty!"));
+        }
+        ImageStorageService.StoredImage image;
+        try {
+            image = imageStorageService.store(file);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        } catch (IOException e) {
+            logger.error("Storing an uploaded image failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error: The image could not be stored!"));
+        }
+
+        String url = request.getContextPath() + "/api/images/" + image.hash() + "." + image.format().getExtension();
+        ImageUploadResponse response = new ImageUploadResponse(image.hash(), url,
+                image.format().getContentType(), image.size(), image.duplicate());
+        return ResponseEntity.status(image.duplicate() ? HttpStatus.OK : HttpStatus.CREATED)
+                .header(HttpHeaders.LOCATION, url)
+                .body(response);
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getImageStatistics() {
+        return ResponseEntity.ok(imageStorageService.getStats());
+    }
+
+    /**
+     * Serves an image, or one of its thumbnails with {@code ?w=}. Single byte ranges are
+     * honoured; multiple ranges get the whole file, which the Range specification allows.
+     */
+    @GetMapping("/{fileName}")
+    public void getImage(@PathVariable String fileName,
+                         @RequestParam(value = "w", required = false) Integer width,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Matcher matcher = FILE_NAME.matcher(fileName);
+        ImageStorageService.Format format = matcher.matches()
+                ? ImageStorageService.Format.fromExtension(matcher.group(2)) : null;
+        if (format == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (width != null && !imageStorageService.isThumbnailSize(width)) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        ImageStorageService.ImageFile image = imageStorageService.find(matcher.group(1), format, width);
+        if (image == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        String etag = "\"" + image.etag() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, image.exact() ? IMMUTABLE : PROVISIONAL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long length = image.size();
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds != null && bounds.length == 0) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(image.format().getContentType());
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, image.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(image.path(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns {start, end} for a satisfiable single range, an empty array for an
+     * unsatisfiable one, and null when the header should be ignored.
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return new long[0];
+                }
+                return new long[] {Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start >= length) {
+                return new long[0];
+            }
+            return end < start ? null : new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
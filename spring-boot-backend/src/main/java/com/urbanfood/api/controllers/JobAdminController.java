@@ -0,0 +1,25 @@
+package com.urbanfood.api.controllers;
+
+import com.urbanfood.api.services.jobs.JobWorker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/jobs")
+@PreAuthorize("hasRole('ADMIN')")
+public class JobAdminController {
+
+    @Autowired
+    private JobWorker jobWorker;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getJobStatistics() {
+        return ResponseEntity.ok(jobWorker.getStats());
+    }
+}
@@ -0,0 +1,25 @@
+package com.urbanfood.api.controllers;
+
+import com.urbanfood.api.services.OutboxRelay;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/outbox")
+@PreAuthorize("hasRole('ADMIN')")
+public class OutboxAdminController {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getOutboxStatistics() {
+        return ResponseEntity.ok(outboxRelay.getStats());
+    }
+}
@@ -1,27 +1,65 @@
 package com.urbanfood.api.controllers;
 
+import com.urbanfood.api.dto.MessageResponse;
+import com.urbanfood.api.dto.NearbyProductDto;
+import com.urbanfood.api.dto.ProductBatchRequest;
+import com.urbanfood.api.dto.ProductBatchResponse;
+import com.urbanfood.api.dto.ProductBulkUpdateRequest;
+import com.urbanfood.api.dto.ProductBulkUpdateResponse;
 import com.urbanfood.api.dto.ProductDto;
-import com.urbanfood.api.models.mongo.Review;
+import com.urbanfood.api.dto.ProductUpdateConflictDto;
+import com.urbanfood.api.dto.RelatedProductDto;
+import com.urbanfood.api.dto.RelatedProductsResponse;
+import com.urbanfood.api.dto.TrendingProductDto;
+import com.urbanfood.api.dto.TrendingProductsResponse;
+import com.urbanfood.api.events.CatalogChangedEvent;
 import com.urbanfood.api.models.oracle.Product;
 import com.urbanfood.api.models.oracle.User;
-import com.urbanfood.api.repositories.mongo.ReviewRepository;
 import com.urbanfood.api.repositories.oracle.ProductRepository;
+import com.urbanfood.api.repositories.oracle.ProductSpecifications;
 import com.urbanfood.api.repositories.oracle.UserRepository;
+import com.urbanfood.api.services.CatalogSnapshotService;
+import com.urbanfood.api.services.FarmLocationIndex;
+import com.urbanfood.api.services.GeoPoint;
+import com.urbanfood.api.services.OutboxService;
+import com.urbanfood.api.services.PostcodeGeocoder;
+import com.urbanfood.api.services.ProductBulkUpdateService;
+import com.urbanfood.api.services.ProductDtoService;
+import com.urbanfood.api.services.ProductFieldSetService;
+import com.urbanfood.api.services.ProductStreamService;
+import com.urbanfood.api.services.RelatedProductsService;
+import com.urbanfood.api.services.TrendingProductsService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
+    private static final int MAX_BATCH_QUERY_IDS = 200;
+    private static final int MAX_SHELF_SIZE = 50;
+    private static final double MAX_NEARBY_RADIUS_KM = 200;
+    // Keeps the farmer IN list well under Oracle's 1000-element limit
+    private static final int MAX_NEARBY_FARMS = 500;
 
     @Autowired
     private ProductRepository productRepository;
@@ -30,66 +68,276 @@ public class ProductController {
     private UserRepository userRepository;
 
     @Autowired
-    private ReviewRepository reviewRepository;
+    private ProductDtoService productDtoService;
+
+    @Autowired
+    private ProductFieldSetService productFieldSetService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private RelatedProductsService relatedProductsService;
+
+    @Autowired
+    private TrendingProductsService trendingProductsService;
+
+    @Autowired
+    private PostcodeGeocoder postcodeGeocoder;
+
+    @Autowired
+    private FarmLocationIndex farmLocationIndex;
+
+    @Autowired
+    private ProductStreamService productStreamService;
+
+    @Autowired
+    private ProductBulkUpdateService productBulkUpdateService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (fields != null) {
+            return findFields(fields, ProductSpecifications.all());
+        }
+
+        ResponseEntity<byte[]> snapshot = catalogSnapshotService.serve(
+                CatalogSnapshotService.ALL_PRODUCTS, acceptEncoding, ifNoneMatch);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
         List<Product> products = productRepository.findAll();
-        List<ProductDto> productDtos = products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<ProductDto> productDtos = productDtoService.toDtos(products);
 
         return ResponseEntity.ok(productDtos);
     }
 
     @GetMapping("/featured")
-    public ResponseEntity<List<ProductDto>> getFeaturedProducts() {
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getFeaturedProducts(
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (fields != null) {
+            return findFields(fields, ProductSpecifications.featured());
+        }
+
+        ResponseEntity<byte[]> snapshot = catalogSnapshotService.serve(
+                CatalogSnapshotService.FEATURED_PRODUCTS, acceptEncoding, ifNoneMatch);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
         List<Product> products = productRepository.findByFeaturedTrue();
-        List<ProductDto> productDtos = products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<ProductDto> productDtos = productDtoService.toDtos(products);
 
         return ResponseEntity.ok(productDtos);
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<ProductDto>> getProductsByCategory(@PathVariable Long categoryId) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getProductsByCategory(@PathVariable Long categoryId,
+                                                   @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return findFields(fields, ProductSpecifications.inCategory(categoryId));
+        }
+
         List<Product> products = productRepository.findByCategoryId(categoryId);
-        List<ProductDto> productDtos = products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<ProductDto> productDtos = productDtoService.toDtos(products);
 
         return ResponseEntity.ok(productDtos);
     }
 
     @GetMapping("/farmer/{farmerId}")
-    public ResponseEntity<List<ProductDto>> getProductsByFarmer(@PathVariable Long farmerId) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getProductsByFarmer(@PathVariable Long farmerId,
+                                                 @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return findFields(fields, ProductSpecifications.byFarmer(farmerId));
+        }
+
         List<Product> products = productRepository.findByFarmerId(farmerId);
-        List<ProductDto> productDtos = products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<ProductDto> productDtos = productDtoService.toDtos(products);
 
         return ResponseEntity.ok(productDtos);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDto>> searchProducts(@RequestParam String keyword) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> searchProducts(@RequestParam String keyword,
+                                            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return findFields(fields, ProductSpecifications.matchingKeyword(keyword));
+        }
+
         List<Product> products = productRepository.findByKeyword(keyword);
-        List<ProductDto> productDtos = products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<ProductDto> productDtos = productDtoService.toDtos(products);
 
         return ResponseEntity.ok(productDtos);
     }
 
+    @GetMapping("/batch")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getProductsByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_BATCH_QUERY_IDS) {
+            return ResponseEntity.badRequest().body(new MessageResponse(
+                    "Error: At most " + MAX_BATCH_QUERY_IDS + " ids can be passed in the query string, use POST for longer lists"));
+        }
+        return ResponseEntity.ok(productDtoService.findBatch(ids));
+    }
+
+    @PostMapping("/batch")
+    @Transactional(readOnly = true)
+    public ResponseEntity<ProductBatchResponse> getProductsByIds(@Valid @RequestBody ProductBatchRequest batchRequest) {
+        return ResponseEntity.ok(productDtoService.findBatch(batchRequest.getIds()));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrendingProducts(@RequestParam(defaultValue = "10") int limit,
+                                                 @RequestParam(defaultValue = "false") boolean expand) {
+        if (limit < 1 || limit > MAX_SHELF_SIZE) {
+            return ResponseEntity.badRequest().body(new MessageResponse(
+                    "Error: limit must be between 1 and " + MAX_SHELF_SIZE));
+        }
+        List<TrendingProductDto> trending = trendingProductsService.getTrending(limit);
+        TrendingProductsResponse response = new TrendingProductsResponse(trending, null);
+        if (expand && !trending.isEmpty()) {
+            List<Long> ids = new ArrayList<>(trending.size());
+            for (TrendingProductDto product : trending) {
+                ids.add(product.getProductId());
+            }
+            response.setProducts(productDtoService.findBatch(ids).getProducts());
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/nearby")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getNearbyProducts(@RequestParam(required = false) Double latitude,
+                                               @RequestParam(required = false) Double longitude,
+                                               @RequestParam(required = false) String zipCode,
+                                               @RequestParam(required = false) String city,
+                                               @RequestParam(defaultValue = "25") double radiusKm,
+                                               @RequestParam(required = false) Long categoryId,
+                                               @RequestParam(defaultValue = "50") int limit) {
+        if (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            return ResponseEntity.badRequest().body(new MessageResponse(
+                    "Error: radiusKm must be greater than 0 and at most " + MAX_NEARBY_RADIUS_KM));
+        }
+        if (limit < 1 || limit > MAX_BATCH_QUERY_IDS) {
+            return ResponseEntity.badRequest().body(new MessageResponse(
+                    "Error: limit must be between 1 and " + MAX_BATCH_QUERY_IDS));
+        }
+
+        Optional<GeoPoint> origin;
+        try {
+            origin = latitude != null && longitude != null
+                    ? Optional.of(new GeoPoint(latitude, longitude))
+                    : postcodeGeocoder.locate(zipCode, city);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+        if (origin.isEmpty()) {
+            return ResponseEntity.badRequest().body(new MessageResponse(
+                    "Error: Pass latitude and longitude, or a known zipCode or city"));
+        }
+
+        List<FarmLocationIndex.NearbyFarm> farms =
+                farmLocationIndex.within(origin.get(), radiusKm, MAX_NEARBY_FARMS);
+        if (farms.isEmpty()) {
+            return ResponseEntity.ok(new ArrayList<NearbyProductDto>());
+        }
+        Map<Long, Double> distances = new HashMap<>();
+        farms.forEach(farm -> distances.put(farm.farmerId(), farm.distanceKm()));
+
+        Specification<Product> spec = ProductSpecifications.byFarmers(distances.keySet());
+        if (categoryId != null) {
+            spec = spec.and(ProductSpecifications.inCategory(categoryId));
+        }
+        List<Product> products = new ArrayList<>(productRepository.findAll(spec));
+        products.sort(Comparator.comparing((Product product) -> distances.get(product.getFarmerId()))
+                .thenComparing(Product::getId));
+        if (products.size() > limit) {
+            products = products.subList(0, limit);
+        }
+
+        List<NearbyProductDto> nearby = new ArrayList<>(products.size());
+        for (ProductDto dto : productDtoService.toDtos(products)) {
+            nearby.add(new NearbyProductDto(distances.get(dto.getFarmerId()), dto));
+        }
+        return ResponseEntity.ok(nearby);
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<SseEmitter> streamProductChanges(@RequestParam(required = false) List<Long> productIds,
+                                                           @RequestParam(required = false) List<Long> categoryIds) {
+        Set<Long> products = productIds == null ? Set.of() : new HashSet<>(productIds);
+        Set<Long> categories = categoryIds == null ? Set.of() : new HashSet<>(categoryIds);
+        // The emitter return type leaves no room for a message body on errors
+        if (products.size() + categories.size() > MAX_BATCH_QUERY_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        SseEmitter emitter = productStreamService.subscribe(products, categories);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                // Stops nginx-style proxies from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    @GetMapping("/stream/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStreamStats() {
+        return ResponseEntity.ok(productStreamService.getStats());
+    }
+
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
         return productRepository.findById(id)
-                .map(this::convertToDto)
+                .map(product -> {
+                    trendingProductsService.recordView(product.getId());
+                    return convertToDto(product);
+                })
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/related")
+    public ResponseEntity<?> getRelatedProducts(@PathVariable Long id,
+                                                @RequestParam(defaultValue = "10") int limit,
+                                                @RequestParam(defaultValue = "false") boolean expand) {
+        if (limit < 1 || limit > MAX_SHELF_SIZE) {
+            return ResponseEntity.badRequest().body(new MessageResponse(
+                    "Error: limit must be between 1 and " + MAX_SHELF_SIZE));
+        }
+        List<RelatedProductDto> related = relatedProductsService.getRelated(id, limit);
+        RelatedProductsResponse response = new RelatedProductsResponse(id, related, null);
+        if (expand && !related.isEmpty()) {
+            List<Long> ids = new ArrayList<>(related.size());
+            for (RelatedProductDto product : related) {
+                ids.add(product.getProductId());
+            }
+            response.setProducts(productDtoService.findBatch(ids).getProducts());
+        }
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('FARMER', 'ADMIN')")
     public ResponseEntity<ProductDto> createProduct(@Valid @RequestBody ProductDto productDto) {
@@ -104,15 +352,22 @@ public class ProductController {
     }
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.product(this, savedProduct.getId()));
 
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToDto(savedProduct));
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('FARMER', 'ADMIN')")
-    public ResponseEntity<ProductDto> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductDto productDto) {
+    @Transactional
+    public ResponseEntity<?> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductDto productDto) {
         return productRepository.findById(id)
-                .map(existingProduct -> {
+                .<ResponseEntity<?>>map(existingProduct -> {
+                    if (productDto.getVersion() != null
+                            && !productDto.getVersion().equals(existingProduct.getVersion())) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ProductUpdateConflictDto(
+                                id, "VERSION_MISMATCH", productDto.getVersion(), existingProduct.getVersion()));
+                    }
                     existingProduct.setName(productDto.getName());
                     existingProduct.setDescription(productDto.getDescription());
                     existingProduct.setPrice(productDto.getPrice().toString());
@@ -123,52 +378,64 @@ public class ProductController {
                     existingProduct.setStock(productDto.getStock());
                     existingProduct.setFeatured(productDto.getFeatured());
 
-                    Product updatedProduct = productRepository.save(existingProduct);
+                    // Flushed here so the response carries the incremented version
+                    Product updatedProduct = productRepository.saveAndFlush(existingProduct);
+                    eventPublisher.publishEvent(CatalogChangedEvent.product(this, updatedProduct.getId()));
                     return ResponseEntity.ok(convertToDto(updatedProduct));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /** Another writer committed between this request's read and its write. */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ProductUpdateConflictDto> handleConcurrentUpdate(ObjectOptimisticLockingFailureException e) {
+        Long id = e.getIdentifier() instanceof Number number ? number.longValue() : null;
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ProductUpdateConflictDto(id, "VERSION_MISMATCH", null, null));
+    }
+
+    @PatchMapping("/bulk")
+    @PreAuthorize("hasAnyRole('FARMER', 'ADMIN')")
+    public ResponseEntity<?> bulkUpdateProducts(@Valid @RequestBody ProductBulkUpdateRequest request) {
+        ProductBulkUpdateResponse response;
+        try {
+            response = productBulkUpdateService.apply(request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+        if (request.isAllOrNothing() && !response.getConflicts().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAnyRole('FARMER', 'ADMIN')")
+    @Transactional
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         return productRepository.findById(id)
                 .map(product -> {
                     productRepository.delete(product);
+                    // Reviews live in Mongo; the relay removes them once this commits
+                    outboxService.productDeleted(product.getId());
+                    eventPublisher.publishEvent(CatalogChangedEvent.product(this, product.getId()));
                     return ResponseEntity.noContent().<Void>build();
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    private ResponseEntity<?> findFields(String fields, Specification<Product> specification) {
+        Set<String> requested;
+        try {
+            requested = productFieldSetService.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+        return ResponseEntity.ok(productFieldSetService.find(requested, specification));
+    }
+
     private ProductDto convertToDto(Product product) {
-        ProductDto dto = new ProductDto();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice() != null ? new BigDecimal(product.getPrice().toString()) : null);
-        dto.setImageUrl(product.getImageUrl());
-        dto.setCategoryId(product.getCategoryId());
-        dto.setFarmerId(product.getFarmerId());
-        dto.setUnit(product.getUnit());
-        dto.setOrganic(product.getOrganic());
-        dto.setStock(product.getStock());
-        dto.setFeatured(product.getFeatured());
-
-        // Get farm name
-        if (product.getFarmerId() != null) {
-            userRepository.findById(product.getFarmerId()).ifPresent(farmer -> 
-                dto.setFarmName(farmer.getFarmName())
-            );
-        }
-
-        // Get average rating and review count from MongoDB
-        Long reviewCount = reviewRepository.countByProductId(product.getId());
-        Double averageRating = reviewRepository.getAverageRatingByProductId(product.getId());
-
-        dto.setReviewCount(reviewCount != null ? reviewCount.intValue() : 0);
-        dto.setAverageRating(averageRating);
-
-        return dto;
+        return productDtoService.toDto(product);
     }
 
     private Product convertToEntity(ProductDto dto) {
@@ -0,0 +1,59 @@
+package com.urbanfood.api.controllers;
+
+import com.urbanfood.api.services.querystats.QueryStatsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/queries")
+@PreAuthorize("hasRole('ADMIN')")
+public class QueryStatsAdminController {
+
+    @Autowired
+    private QueryStatsService queryStatsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getQueryStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", queryStatsService.isEnabled());
+        stats.put("slowQueryMs", queryStatsService.getSlowQueryMs());
+        stats.put("nPlusOneThreshold", queryStatsService.getNPlusOneThreshold());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (statistics.isStatisticsEnabled()) {
+            Map<String, Object> global = new LinkedHashMap<>();
+            global.put("statements", statistics.getPrepareStatementCount());
+            global.put("queries", statistics.getQueryExecutionCount());
+            global.put("slowestQueryMillis", statistics.getQueryExecutionMaxTime());
+            global.put("entityLoads", statistics.getEntityLoadCount());
+            global.put("entityFetches", statistics.getEntityFetchCount());
+            global.put("collectionFetches", statistics.getCollectionFetchCount());
+            global.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+            global.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+            global.put("queryCacheHits", statistics.getQueryCacheHitCount());
+            stats.put("global", global);
+        }
+        stats.put("endpoints", queryStatsService.getEndpointStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> resetQueryStatistics() {
+        queryStatsService.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
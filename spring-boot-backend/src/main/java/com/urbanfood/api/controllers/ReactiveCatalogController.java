@@ -0,0 +1,49 @@
+package com.urbanfood.api.controllers;
+
+import com.urbanfood.api.dto.CategoryDto;
+import com.urbanfood.api.dto.ProductDto;
+import com.urbanfood.api.models.mongo.Review;
+import com.urbanfood.api.services.ReactiveCatalogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only catalog for partner integrations. Collections are streamed as
+ * newline-delimited JSON, one element per line, as fast as the client reads them.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+public class ReactiveCatalogController {
+
+    @Autowired
+    private ReactiveCatalogService reactiveCatalogService;
+
+    @GetMapping(value = "/products", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductDto> streamProducts() {
+        return reactiveCatalogService.streamProducts();
+    }
+
+    @GetMapping("/products/{id}")
+    public Mono<ResponseEntity<ProductDto>> getProduct(@PathVariable Long id) {
+        return reactiveCatalogService.findProduct(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/products/{id}/reviews", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Review> streamReviews(@PathVariable Long id) {
+        return reactiveCatalogService.streamReviews(id);
+    }
+
+    @GetMapping(value = "/categories", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CategoryDto> streamCategories() {
+        return reactiveCatalogService.streamCategories();
+    }
+}
@@ -0,0 +1,24 @@
+package com.urbanfood.api.controllers;
+
+import com.urbanfood.api.dto.WarmupReportDto;
+import com.urbanfood.api.services.StartupWarmup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/warmup")
+@PreAuthorize("hasRole('ADMIN')")
+public class WarmupController {
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+
+    @GetMapping
+    public ResponseEntity<WarmupReportDto> getWarmupReport() {
+        return ResponseEntity.ok(startupWarmup.getReport());
+    }
+}
@@ -0,0 +1,17 @@
+package com.urbanfood.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheRegionStatsDto {
+    private String region;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long elementCountInMemory;
+    private double hitRatio;
+}
@@ -0,0 +1,14 @@
+package com.urbanfood.api.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CartDto {
+    private List<CartItemDto> items = new ArrayList<>();
+    private Integer totalQuantity;
+    private BigDecimal totalAmount;
+}
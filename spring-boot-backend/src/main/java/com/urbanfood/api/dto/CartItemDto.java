@@ -0,0 +1,24 @@
+package com.urbanfood.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemDto {
+    private Long productId;
+    private String name;
+    private String imageUrl;
+    private String unit;
+    private BigDecimal unitPrice;
+    private Integer quantity;
+    private BigDecimal subtotal;
+    // False when the product no longer exists, has no price or lacks stock for the quantity
+    private Boolean available;
+    // True when the price differs from the one recorded when the line was added; checkout reports it as a conflict
+    private Boolean priceChanged;
+}
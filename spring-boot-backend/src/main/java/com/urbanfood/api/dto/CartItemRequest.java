@@ -0,0 +1,17 @@
+package com.urbanfood.api.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CartItemRequest {
+    @NotNull
+    private Long productId;
+
+    @NotNull
+    @Min(value = 0)
+    @Max(value = 1000)
+    private Integer quantity;
+}
@@ -0,0 +1,19 @@
+package com.urbanfood.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class CheckoutRequest {
+    @NotBlank
+    @Size(max = 255)
+    private String shippingAddress;
+
+    @Size(max = 20)
+    private String contactPhone;
+
+    @NotBlank
+    @Size(max = 50)
+    private String paymentMethod;
+}
@@ -0,0 +1,19 @@
+package com.urbanfood.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesDto {
+    private LocalDate date;
+    private Long productId;
+    private Long units;
+    private BigDecimal revenue;
+    private Long orderCount;
+}
@@ -0,0 +1,16 @@
+package com.urbanfood.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageUploadResponse {
+    private String hash;
+    private String url;
+    private String contentType;
+    private Long size;
+    private Boolean duplicate;
+}
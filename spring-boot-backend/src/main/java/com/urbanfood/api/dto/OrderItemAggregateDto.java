@@ -0,0 +1,17 @@
+package com.urbanfood.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemAggregateDto {
+    private String key;
+    private Long units;
+    private BigDecimal revenue;
+    private Long rows;
+}
@@ -0,0 +1,14 @@
+package com.urbanfood.api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class OrderItemAggregateResponse {
+    private String groupBy;
+    private Long rowsScanned;
+    private Long rowsMatched;
+    private Long elapsedMicros;
+    private List<OrderItemAggregateDto> groups;
+}
@@ -0,0 +1,14 @@
+package com.urbanfood.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProductBatchRequest {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<Long> ids;
+}
@@ -0,0 +1,17 @@
+package com.urbanfood.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProductBulkUpdateRequest {
+    @NotEmpty
+    @Valid
+    private List<ProductPatch> updates;
+
+    // Apply nothing if any patch conflicts
+    private boolean allOrNothing;
+}
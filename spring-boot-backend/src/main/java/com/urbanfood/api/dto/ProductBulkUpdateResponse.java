@@ -0,0 +1,15 @@
+package com.urbanfood.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkUpdateResponse {
+    private List<ProductVersionDto> updated;
+    private List<ProductUpdateConflictDto> conflicts;
+}
@@ -0,0 +1,19 @@
+package com.urbanfood.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDeltaDto {
+    private Long productId;
+    private Long categoryId;
+    private String name;
+    private BigDecimal price;
+    private Integer stock;
+    private Boolean deleted;
+}
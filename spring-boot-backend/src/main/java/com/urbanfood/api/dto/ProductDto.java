@@ -45,4 +45,7 @@ public class ProductDto {
     private Double averageRating;
     
     private Integer reviewCount;
+
+    // Optional on update: when sent, the update is rejected if the product changed since
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.urbanfood.api.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/** A partial product update; fields left null are not changed. */
+@Data
+public class ProductPatch {
+    @NotNull
+    private Long id;
+
+    // When present, the patch is only applied if the product is still at this version
+    private Long version;
+
+    @DecimalMin(value = "0.0")
+    private BigDecimal price;
+
+    @Min(value = 0)
+    private Integer stock;
+
+    private Boolean featured;
+}
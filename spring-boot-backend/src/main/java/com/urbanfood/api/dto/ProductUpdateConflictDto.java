@@ -0,0 +1,16 @@
+package com.urbanfood.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductUpdateConflictDto {
+    private Long id;
+    // NOT_FOUND or VERSION_MISMATCH
+    private String reason;
+    private Long expectedVersion;
+    private Long currentVersion;
+}
@@ -0,0 +1,13 @@
+package com.urbanfood.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatedProductDto {
+    private Long productId;
+    private Integer coPurchases;
+}
@@ -0,0 +1,16 @@
+package com.urbanfood.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingProductsResponse {
+    private List<TrendingProductDto> trending;
+    // Only filled when the caller asks for full product details
+    private List<ProductDto> products;
+}
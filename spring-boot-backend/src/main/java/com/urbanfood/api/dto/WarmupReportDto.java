@@ -0,0 +1,17 @@
+package com.urbanfood.api.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class WarmupReportDto {
+    private String status = "PENDING";
+    private Long preloadMs;
+    private Long totalMs;
+    // Time from the start of warm-up until round p99 stopped changing; null if it never settled
+    private Long timeToSteadyStateMs;
+    private Double steadyStateP99Ms;
+    private List<WarmupRoundDto> rounds = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package com.urbanfood.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarmupRoundDto {
+    private Integer round;
+    private Integer requests;
+    private Integer failures;
+    private Double p50Ms;
+    private Double p99Ms;
+    private Double maxMs;
+}
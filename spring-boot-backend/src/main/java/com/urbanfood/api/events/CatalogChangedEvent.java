@@ -0,0 +1,52 @@
+package com.urbanfood.api.events;
+
+import org.springframework.context.ApplicationEvent;
+
+public class CatalogChangedEvent extends ApplicationEvent {
+    private static final long serialVersionUID = 1L;
+
+    public enum EntityType {
+        PRODUCT,
+        CATEGORY
+    }
+
+    private final EntityType entityType;
+    private final Long entityId;
+    private final boolean remote;
+
+    public CatalogChangedEvent(Object source, EntityType entityType, Long entityId) {
+        this(source, entityType, entityId, false);
+    }
+
+    public CatalogChangedEvent(Object source, EntityType entityType, Long entityId, boolean remote) {
+        super(source);
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.remote = remote;
+    }
+
+    public static CatalogChangedEvent product(Object source, Long productId) {
+        return new CatalogChangedEvent(source, EntityType.PRODUCT, productId);
+    }
+
+    public static CatalogChangedEvent category(Object source, Long categoryId) {
+        return new CatalogChangedEvent(source, EntityType.CATEGORY, categoryId);
+    }
+
+    /** A change committed by another instance, replayed here from the invalidation bus. */
+    public static CatalogChangedEvent remote(Object source, EntityType entityType, Long entityId) {
+        return new CatalogChangedEvent(source, entityType, entityId, true);
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+}
@@ -0,0 +1,21 @@
+package com.urbanfood.api.events;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Raised from the JPA lifecycle when an order row is inserted, inside the writing transaction.
+ */
+public class OrderPersistedEvent extends ApplicationEvent {
+    private static final long serialVersionUID = 1L;
+
+    private final Long orderId;
+
+    public OrderPersistedEvent(Object source, Long orderId) {
+        super(source);
+        this.orderId = orderId;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+}
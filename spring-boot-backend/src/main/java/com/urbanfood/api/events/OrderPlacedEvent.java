@@ -0,0 +1,69 @@
+package com.urbanfood.api.events;
+
+import com.urbanfood.api.models.oracle.Order;
+import com.urbanfood.api.models.oracle.OrderItem;
+import com.urbanfood.api.models.oracle.Product;
+import org.springframework.context.ApplicationEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Published once an order has been committed. Carries a detached snapshot of the
+ * order lines so listeners never need to touch the database or lazy associations.
+ */
+public class OrderPlacedEvent extends ApplicationEvent {
+    private static final long serialVersionUID = 1L;
+
+    private final Long orderId;
+    private final Long userId;
+    private final LocalDateTime orderDate;
+    private final List<Line> lines;
+
+    public OrderPlacedEvent(Object source, Long orderId, Long userId, LocalDateTime orderDate, List<Line> lines) {
+        super(source);
+        this.orderId = orderId;
+        this.userId = userId;
+        this.orderDate = orderDate;
+        this.lines = Collections.unmodifiableList(lines);
+    }
+
+    public static OrderPlacedEvent from(Object source, Order order) {
+        List<Line> lines = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            lines.add(new Line(product.getId(), product.getFarmerId(), product.getCategoryId(),
+                    Boolean.TRUE.equals(product.getOrganic()), item.getQuantity(), item.getUnitPrice()));
+        }
+        return new OrderPlacedEvent(source, order.getId(),
+                order.getUser() != null ? order.getUser().getId() : null,
+                order.getOrderDate() != null ? order.getOrderDate() : LocalDateTime.now(),
+                lines);
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public record Line(Long productId, Long farmerId, Long categoryId, boolean organic,
+                       int quantity, BigDecimal unitPrice) {
+        public BigDecimal revenue() {
+            return unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.urbanfood.api.events;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published after a new account has been saved, on this instance or (remote) on a peer.
+ */
+public class UserRegisteredEvent extends ApplicationEvent {
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+    private final String username;
+    private final String email;
+    private final boolean farmer;
+    private final String city;
+    private final String zipCode;
+    private final boolean remote;
+
+    public UserRegisteredEvent(Object source, Long userId, String username, String email,
+                               boolean farmer, String city, String zipCode) {
+        this(source, userId, username, email, farmer, city, zipCode, false);
+    }
+
+    public UserRegisteredEvent(Object source, Long userId, String username, String email,
+                               boolean farmer, String city, String zipCode, boolean remote) {
+        super(source);
+        this.userId = userId;
+        this.username = username;
+        this.email = email;
+        this.farmer = farmer;
+        this.city = city;
+        this.zipCode = zipCode;
+        this.remote = remote;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public boolean isFarmer() {
+        return farmer;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getZipCode() {
+        return zipCode;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+}
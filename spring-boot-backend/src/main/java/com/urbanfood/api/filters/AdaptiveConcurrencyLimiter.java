@@ -0,0 +1,130 @@
+package com.urbanfood.api.filters;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gradient-style adaptive in-flight limit. Latency samples are accumulated per window;
+ * when a window closes the limit is scaled by longTermRtt / shortTermRtt (so it shrinks
+ * as latency rises above the long-term baseline) plus a small headroom to probe upwards.
+ *
+ * Admission and sampling are lock-free: a CAS on the in-flight counter and two adders.
+ * Whichever thread first sees an expired window wins a CAS and recomputes the limit.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        /** Auth and checkout: may use the whole limit. */
+        CRITICAL(1.0),
+        /** Authenticated traffic. */
+        NORMAL(0.9),
+        /** Anonymous catalog reads: shed first. */
+        SHEDDABLE(0.7);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_RTT_DECAY = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder windowRttSum = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicLong windowEnd;
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private volatile double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long windowMillis) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = windowMillis * 1_000_000L;
+        this.windowEnd = new AtomicLong(System.nanoTime() + windowNanos);
+    }
+
+    /**
+     * Tries to admit a request of the given priority; on success the caller must call
+     * {@link #release(long)} exactly once.
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                int peak = peakInFlight.get();
+                if (current + 1 > peak) {
+                    peakInFlight.compareAndSet(peak, current + 1);
+                }
+                return true;
+            }
+        }
+    }
+
+    public void release(long startNanos) {
+        long now = System.nanoTime();
+        inFlight.decrementAndGet();
+        windowRttSum.add(now - startNanos);
+        windowSamples.increment();
+
+        long end = windowEnd.get();
+        if (now >= end && windowEnd.compareAndSet(end, now + windowNanos)) {
+            updateLimit();
+        }
+    }
+
+    private void updateLimit() {
+        long samples = windowSamples.sumThenReset();
+        long rttSum = windowRttSum.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        if (samples == 0) {
+            return;
+        }
+
+        double shortRtt = (double) rttSum / samples;
+        double longRtt = longRttNanos;
+        if (longRtt == 0) {
+            longRttNanos = shortRtt;
+            return;
+        }
+        longRtt = longRtt * (1 - LONG_RTT_DECAY) + shortRtt * LONG_RTT_DECAY;
+        // Let the baseline recover quickly after a period of sustained high latency
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        longRttNanos = longRtt;
+
+        int current = limit;
+        // Don't grow the limit when the instance isn't using it
+        if (peak < current / 2 && shortRtt <= longRtt) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, longRtt / shortRtt));
+        double headroom = Math.sqrt(current);
+        double target = current * gradient + headroom;
+        int next = (int) Math.round(current * (1 - SMOOTHING) + target * SMOOTHING);
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,157 @@
+package com.urbanfood.api.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbanfood.api.dto.ErrorResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds load before it reaches the JWT filter and the database. Requests are classed by
+ * route: auth and checkout are critical, anonymous GETs are sheddable, and everything
+ * else is normal. Lower classes are refused at a lower fraction of the adaptive limit,
+ * so catalog browsing backs off first when Oracle slows down.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    @Value("${app.concurrency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.concurrency.initial-limit:50}")
+    private int initialLimit;
+
+    @Value("${app.concurrency.min-limit:10}")
+    private int minLimit;
+
+    @Value("${app.concurrency.max-limit:400}")
+    private int maxLimit;
+
+    @Value("${app.concurrency.window-ms:1000}")
+    private long windowMs;
+
+    @Value("${app.concurrency.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Value("${app.concurrency.critical-paths:/api/auth/,/api/cart/checkout}")
+    private List<String> criticalPaths;
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @PostConstruct
+    public void init() {
+        limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, windowMs);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Shedding health probes would take a busy instance out of rotation and make things worse;
+        // live product streams stay open for minutes and would pin a slot each
+        String path = request.getServletPath();
+        return !enabled || path.startsWith("/actuator/") || path.equals("/api/products/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter.Priority priority = classify(request);
+        if (!limiter.tryAcquire(priority)) {
+            reject(request, response, priority);
+            return;
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streaming responses hold their slot until the async request completes
+                request.getAsyncContext().addListener(new ReleasingListener(start, released));
+            } else if (released.compareAndSet(false, true)) {
+                limiter.release(start);
+            }
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter.Priority classify(HttpServletRequest request) {
+        String path = request.getServletPath();
+        for (String criticalPath : criticalPaths) {
+            if (path.startsWith(criticalPath)) {
+                return AdaptiveConcurrencyLimiter.Priority.CRITICAL;
+            }
+        }
+        boolean anonymous = request.getHeader(HttpHeaders.AUTHORIZATION) == null;
+        if (anonymous && HttpMethod.GET.matches(request.getMethod())) {
+            return AdaptiveConcurrencyLimiter.Priority.SHEDDABLE;
+        }
+        return AdaptiveConcurrencyLimiter.Priority.NORMAL;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        AdaptiveConcurrencyLimiter.Priority priority) throws IOException {
+        logger.debug("Shedding {} request {} (in flight {}, limit {})",
+                priority, request.getServletPath(), limiter.getInFlight(), limiter.getLimit());
+
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                "Service Unavailable",
+                "Server is overloaded, please retry later",
+                request.getServletPath()
+        );
+        mapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private final class ReleasingListener implements AsyncListener {
+        private final long start;
+        private final AtomicBoolean released;
+
+        private ReleasingListener(long start, AtomicBoolean released) {
+            this.start = start;
+            this.released = released;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(start);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            onComplete(event);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            onComplete(event);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.urbanfood.api.filters;
+
+import com.urbanfood.api.services.querystats.QueryStatsService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a query statistics scope around each request. It runs ahead of the security
+ * chain, so the user lookups done while authenticating count against the endpoint too.
+ * Requests are grouped by the matched route pattern, not the raw path.
+ */
+public class QueryStatsFilter extends OncePerRequestFilter {
+    private final QueryStatsService queryStatsService;
+
+    public QueryStatsFilter(QueryStatsService queryStatsService) {
+        this.queryStatsService = queryStatsService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        queryStatsService.beginRequest();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            queryStatsService.endRequest(request.getMethod() + " " + (pattern != null ? pattern : "(unmapped)"));
+        }
+    }
+}
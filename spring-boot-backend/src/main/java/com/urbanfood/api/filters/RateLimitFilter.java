@@ -0,0 +1,146 @@
+package com.urbanfood.api.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbanfood.api.dto.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-client token buckets for expensive routes. Runs after AuthTokenFilter so that
+ * authenticated clients are keyed by their JWT subject; anonymous clients by IP.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+    private static final String OVERFLOW_KEY = "*overflow*";
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    // One map per rule, so each route's client limit is enforced on its own
+    private final ConcurrentHashMap<Integer, ConcurrentHashMap<String, TokenBucket>> bucketsByRule =
+            new ConcurrentHashMap<>();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || properties.getRules().isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int ruleIndex = matchRule(request);
+        if (ruleIndex >= 0) {
+            RateLimitProperties.Rule rule = properties.getRules().get(ruleIndex);
+            long now = System.currentTimeMillis();
+            long waitMillis = bucketFor(ruleIndex, rule, clientKey(request), now).tryConsume(now);
+            if (waitMillis > 0) {
+                reject(request, response, waitMillis);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private int matchRule(HttpServletRequest request) {
+        List<RateLimitProperties.Rule> rules = properties.getRules();
+        String path = request.getServletPath();
+        for (int i = 0; i < rules.size(); i++) {
+            RateLimitProperties.Rule rule = rules.get(i);
+            if ((rule.getMethod() == null || rule.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && matches(rule.getPath(), path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Most rules are literal paths, which need no pattern parsing
+    private boolean matches(String pattern, String path) {
+        return pathMatcher.isPattern(pattern) ? pathMatcher.match(pattern, path) : pattern.equals(path);
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "u:" + authentication.getName();
+        }
+        if (properties.isTrustForwardedFor()) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (StringUtils.hasText(forwardedFor)) {
+                int comma = forwardedFor.indexOf(',');
+                return "ip:" + (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private TokenBucket bucketFor(int ruleIndex, RateLimitProperties.Rule rule, String client, long now) {
+        ConcurrentHashMap<String, TokenBucket> buckets =
+                bucketsByRule.computeIfAbsent(ruleIndex, index -> new ConcurrentHashMap<>());
+        TokenBucket bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        int maxKeys = rule.getMaxKeys() != null ? rule.getMaxKeys() : properties.getMaxKeys();
+        String key = client;
+        if (buckets.size() >= maxKeys) {
+            // Keep memory bounded: unknown clients share one bucket until idle keys are evicted
+            key = OVERFLOW_KEY;
+        }
+        return buckets.computeIfAbsent(key,
+                k -> new TokenBucket(rule.getCapacity(), rule.getRefillPerSecond(), now));
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitMillis) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitMillis + 999) / 1000);
+        logger.debug("Rate limited {} {} for {}s", request.getMethod(), request.getServletPath(), retryAfterSeconds);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                "Rate limit exceeded, retry in " + retryAfterSeconds + "s",
+                request.getServletPath()
+        );
+        mapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    @Scheduled(fixedDelayString = "${app.ratelimit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long cutoff = System.currentTimeMillis() - properties.getIdleEvictionSeconds() * 1000;
+        int evicted = 0;
+        for (ConcurrentHashMap<String, TokenBucket> buckets : bucketsByRule.values()) {
+            int before = buckets.size();
+            buckets.values().removeIf(bucket -> bucket.getLastSeenMillis() < cutoff);
+            evicted += before - buckets.size();
+        }
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle rate-limit buckets", evicted);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.urbanfood.api.filters;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ratelimit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on tracked clients per route (a rule may override it); beyond it new
+     * clients of that route share an overflow bucket.
+     */
+    private int maxKeys = 100_000;
+
+    private long idleEvictionSeconds = 600;
+
+    /** Use the first X-Forwarded-For address as the client IP (only behind a trusted proxy). */
+    private boolean trustForwardedFor = false;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        /** Ant-style servlet path pattern, e.g. /api/products/search */
+        private String path;
+
+        /** HTTP method to match, or null for any. */
+        private String method;
+
+        private long capacity;
+
+        private double refillPerSecond;
+
+        /** Overrides the global maxKeys for this route. */
+        private Integer maxKeys;
+    }
+}
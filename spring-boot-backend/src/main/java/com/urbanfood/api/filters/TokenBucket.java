@@ -0,0 +1,78 @@
+package com.urbanfood.api.filters;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket whose whole state (refill timestamp and token count) lives in one
+ * AtomicLong, so consuming a token is a single CAS with no locking or allocation.
+ *
+ * Layout: high 40 bits = milliseconds since {@link #EPOCH_MILLIS}, low 24 bits = tokens
+ * in thousandths (so fractional refill rates accumulate exactly and capacity is capped
+ * at 16,000 tokens).
+ */
+public final class TokenBucket {
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+    private static final long EPOCH_MILLIS = System.currentTimeMillis();
+
+    public static final long MAX_CAPACITY = TOKEN_MASK / MILLI;
+
+    private final long capacityMilli;
+    /** Thousandths of a token added per millisecond, which is numerically tokens per second. */
+    private final double refillMilliPerMs;
+    private final AtomicLong state;
+    private volatile long lastSeenMillis;
+
+    public TokenBucket(long capacity, double refillPerSecond, long nowMillis) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Bucket capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        this.capacityMilli = capacity * MILLI;
+        this.refillMilliPerMs = refillPerSecond;
+        this.state = new AtomicLong(pack(nowMillis - EPOCH_MILLIS, capacityMilli));
+        this.lastSeenMillis = nowMillis;
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return 0 if the request is allowed, otherwise the milliseconds until a token will be available
+     */
+    public long tryConsume(long nowMillis) {
+        lastSeenMillis = nowMillis;
+        long now = nowMillis - EPOCH_MILLIS;
+        while (true) {
+            long current = state.get();
+            long last = current >>> TOKEN_BITS;
+            long tokens = current & TOKEN_MASK;
+
+            long elapsed = Math.max(0, now - last);
+            long added = (long) (elapsed * refillMilliPerMs);
+            long refilled = Math.min(capacityMilli, tokens + added);
+            // Only advance the clock by the time actually converted into tokens, so slow
+            // refill rates are not rounded away on every call
+            long newLast = refilled == capacityMilli || refillMilliPerMs <= 0
+                    ? now
+                    : last + (long) (added / refillMilliPerMs);
+
+            if (refilled < MILLI) {
+                if (refillMilliPerMs <= 0) {
+                    return Long.MAX_VALUE;
+                }
+                return (long) Math.ceil((MILLI - refilled) / refillMilliPerMs);
+            }
+            if (state.compareAndSet(current, pack(newLast, refilled - MILLI))) {
+                return 0;
+            }
+        }
+    }
+
+    public long getLastSeenMillis() {
+        return lastSeenMillis;
+    }
+
+    private static long pack(long millis, long tokensMilli) {
+        return (millis << TOKEN_BITS) | tokensMilli;
+    }
+}
@@ -0,0 +1,14 @@
+package com.urbanfood.api.models.mongo;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+
+@Data
+public class ProductRatingSummary {
+    @Id
+    private Long productId;
+
+    private Long reviewCount;
+
+    private Double averageRating;
+}
@@ -0,0 +1,74 @@
+package com.urbanfood.api.models.oracle;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A unit of asynchronous work. Pending jobs are claimed by a worker, which holds them
+ * RUNNING under a lease; a job that succeeds is deleted, and one that keeps failing is
+ * left DEAD for inspection.
+ */
+@Entity
+@Table(name = "background_jobs")
+@Data
+@NoArgsConstructor
+public class BackgroundJob {
+    public enum Status {
+        PENDING, RUNNING, DEAD
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "queue_name", nullable = false, length = 40)
+    private String queue;
+
+    @Column(nullable = false, length = 60)
+    private String jobType;
+
+    @Column(length = 4000)
+    private String payload;
+
+    // At most one live job per key; cleared when the job dies so it can be requested again
+    @Column(unique = true, length = 100)
+    private String dedupeKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private Integer maxAttempts;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(length = 64)
+    private String lockedBy;
+
+    private LocalDateTime lockedUntil;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public BackgroundJob(String queue, String jobType, String payload, String dedupeKey, int maxAttempts) {
+        this.queue = queue;
+        this.jobType = jobType;
+        this.payload = payload;
+        this.dedupeKey = dedupeKey;
+        this.maxAttempts = maxAttempts;
+        this.status = Status.PENDING;
+        this.createdAt = LocalDateTime.now();
+        this.availableAt = this.createdAt;
+    }
+}
@@ -5,12 +5,16 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categories")
 @Data
 @NoArgsConstructor
 public class Category {
@@ -28,6 +32,9 @@ public class Category {
     @Size(max = 50)
     private String icon;
 
-    @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, orphanRemoval = true)
+    // Product maps category_id as a plain column, so the collection joins on it read-only
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "category_id", insertable = false, updatable = false)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categories.products")
     private List<Product> products = new ArrayList<>();
 }
\ No newline at end of file
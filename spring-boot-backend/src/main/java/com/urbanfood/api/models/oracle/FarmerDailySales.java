@@ -0,0 +1,37 @@
+package com.urbanfood.api.models.oracle;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "farmer_daily_sales",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"farmer_id", "sales_date"}))
+@Data
+@NoArgsConstructor
+public class FarmerDailySales {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "farmer_id", nullable = false)
+    private Long farmerId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    private Long units = 0L;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    private Long orderCount = 0L;
+
+    public FarmerDailySales(Long farmerId, LocalDate salesDate) {
+        this.farmerId = farmerId;
+        this.salesDate = salesDate;
+    }
+}
@@ -14,6 +14,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "orders")
+@EntityListeners(OrderEntityListener.class)
 @Data
 @NoArgsConstructor
 public class Order {
@@ -0,0 +1,18 @@
+package com.urbanfood.api.models.oracle;
+
+import com.urbanfood.api.events.OrderPersistedEvent;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OrderEntityListener {
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void orderPersisted(Order order) {
+        eventPublisher.publishEvent(new OrderPersistedEvent(this, order.getId()));
+    }
+}
@@ -0,0 +1,59 @@
+package com.urbanfood.api.models.oracle;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change that still has to reach MongoDB, written in the same transaction as the Oracle
+ * change itself and deleted by the relay once applied.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+public class OutboxEvent {
+    public enum EventType {
+        PRODUCT_DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 30)
+    private String aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private EventType eventType;
+
+    @Column(length = 4000)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public OutboxEvent(String aggregateType, Long aggregateId, EventType eventType, String payload) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+        this.availableAt = this.createdAt;
+    }
+}
@@ -2,10 +2,14 @@ package com.urbanfood.api.models.oracle;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Entity
 @Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -15,10 +19,15 @@ public class Product {
     private String description;
     private String price;
     private String imageUrl;
+    @Column(name = "category_id")
     private Long categoryId;
     private Long farmerId;
     private String unit;
     private Boolean organic;
     private Integer stock;
     private Boolean featured;
+
+    // Bumped on every write, including bulk JDBC updates, to detect concurrent changes
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.urbanfood.api.models.oracle;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "product_daily_sales",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "sales_date"}),
+        indexes = @Index(name = "idx_product_daily_sales_farmer", columnList = "farmer_id, sales_date"))
+@Data
+@NoArgsConstructor
+public class ProductDailySales {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "farmer_id")
+    private Long farmerId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    private Long units = 0L;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    private Long orderCount = 0L;
+
+    public ProductDailySales(Long productId, Long farmerId, LocalDate salesDate) {
+        this.productId = productId;
+        this.farmerId = farmerId;
+        this.salesDate = salesDate;
+    }
+}
@@ -3,9 +3,13 @@ package com.urbanfood.api.models.oracle;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "roles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "roles")
 @Data
 @NoArgsConstructor
 public class Role {
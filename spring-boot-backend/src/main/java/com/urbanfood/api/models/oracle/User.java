@@ -94,7 +94,6 @@ public class User {
     public void setRoles(Set<Role> roles) { this.roles = roles; }
 
     public boolean isFarmer() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'isFarmer'");
+        return Boolean.TRUE.equals(isFarmer);
     }
 }
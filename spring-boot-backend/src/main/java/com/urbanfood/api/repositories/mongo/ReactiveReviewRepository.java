@@ -0,0 +1,21 @@
+package com.urbanfood.api.repositories.mongo;
+
+import com.urbanfood.api.models.mongo.ProductRatingSummary;
+import com.urbanfood.api.models.mongo.Review;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+@Repository
+public interface ReactiveReviewRepository extends ReactiveMongoRepository<Review, String> {
+    Flux<Review> findByProductId(Long productId);
+
+    @Aggregation(pipeline = {
+            "{ $match: { productId: { $in: ?0 } } }",
+            "{ $group: { _id: '$productId', reviewCount: { $sum: 1 }, averageRating: { $avg: '$rating' } } }"
+    })
+    Flux<ProductRatingSummary> summarizeByProductIds(Collection<Long> productIds);
+}
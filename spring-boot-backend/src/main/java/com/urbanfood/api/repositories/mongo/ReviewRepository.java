@@ -1,10 +1,13 @@
 package com.urbanfood.api.repositories.mongo;
 
+import com.urbanfood.api.models.mongo.ProductRatingSummary;
 import com.urbanfood.api.models.mongo.Review;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,4 +23,10 @@ public interface ReviewRepository extends MongoRepository<Review, String> {
     
     @Query("{ 'productId' : ?0 }")
     Double getAverageRatingByProductId(Long productId);
+
+    @Aggregation(pipeline = {
+            "{ $match: { productId: { $in: ?0 } } }",
+            "{ $group: { _id: '$productId', reviewCount: { $sum: 1 }, averageRating: { $avg: '$rating' } } }"
+    })
+    List<ProductRatingSummary> summarizeByProductIds(Collection<Long> productIds);
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.urbanfood.api.repositories.oracle;
+
+import com.urbanfood.api.models.oracle.BackgroundJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Updates to a claimed job are conditional on the claiming worker still holding it, so a
+ * worker whose lease expired cannot overwrite the outcome of the worker that took over.
+ */
+@Repository
+public interface BackgroundJobRepository extends JpaRepository<BackgroundJob, Long>, BackgroundJobRepositoryCustom {
+
+    boolean existsByDedupeKey(String dedupeKey);
+
+    @Modifying
+    @Query("DELETE FROM BackgroundJob j WHERE j.id = :id AND j.lockedBy = :owner")
+    int complete(@Param("id") Long id, @Param("owner") String owner);
+
+    @Modifying
+    @Query("UPDATE BackgroundJob j SET j.status = 'PENDING', j.availableAt = :availableAt, j.lastError = :error, " +
+            "j.lockedBy = NULL, j.lockedUntil = NULL WHERE j.id = :id AND j.lockedBy = :owner")
+    int retry(@Param("id") Long id, @Param("owner") String owner, @Param("availableAt") LocalDateTime availableAt,
+              @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE BackgroundJob j SET j.status = 'DEAD', j.dedupeKey = NULL, j.availableAt = :now, " +
+            "j.lastError = :error, j.lockedBy = NULL, j.lockedUntil = NULL WHERE j.id = :id AND j.lockedBy = :owner")
+    int bury(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now,
+             @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE BackgroundJob j SET j.lockedUntil = :lockedUntil WHERE j.id IN :ids AND j.lockedBy = :owner")
+    int extendLeases(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+                     @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    // Owners that stopped renewing have crashed or hung; their jobs go back to the queue
+    @Modifying
+    @Query("UPDATE BackgroundJob j SET j.status = 'PENDING', j.lastError = 'Lease expired', " +
+            "j.lockedBy = NULL, j.lockedUntil = NULL " +
+            "WHERE j.status = 'RUNNING' AND j.lockedUntil < :now AND j.attempts < j.maxAttempts")
+    int releaseExpired(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE BackgroundJob j SET j.status = 'DEAD', j.dedupeKey = NULL, j.availableAt = :now, " +
+            "j.lastError = 'Lease expired', j.lockedBy = NULL, j.lockedUntil = NULL " +
+            "WHERE j.status = 'RUNNING' AND j.lockedUntil < :now AND j.attempts >= j.maxAttempts")
+    int buryExpired(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE BackgroundJob j SET j.status = 'PENDING', j.attempts = j.attempts - 1, " +
+            "j.lockedBy = NULL, j.lockedUntil = NULL WHERE j.status = 'RUNNING' AND j.lockedBy = :owner")
+    int releaseOwned(@Param("owner") String owner);
+
+    @Modifying
+    @Query("UPDATE BackgroundJob j SET j.status = 'PENDING', j.attempts = j.attempts - 1, " +
+            "j.lockedBy = NULL, j.lockedUntil = NULL WHERE j.id = :id AND j.status = 'RUNNING' AND j.lockedBy = :owner")
+    int release(@Param("id") Long id, @Param("owner") String owner);
+
+    // A dead job's availableAt records when it died
+    @Modifying
+    @Query("DELETE FROM BackgroundJob j WHERE j.status = 'DEAD' AND j.availableAt < :cutoff")
+    int purgeDead(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT j.queue, j.status, COUNT(j), MIN(j.availableAt) FROM BackgroundJob j GROUP BY j.queue, j.status")
+    List<Object[]> countByQueueAndStatus();
+}
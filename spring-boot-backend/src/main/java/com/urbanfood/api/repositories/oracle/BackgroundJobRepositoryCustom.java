@@ -0,0 +1,16 @@
+package com.urbanfood.api.repositories.oracle;
+
+import com.urbanfood.api.models.oracle.BackgroundJob;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BackgroundJobRepositoryCustom {
+    /**
+     * Claims up to {@code limit} due jobs of one queue for {@code owner}: the oldest pending
+     * rows are locked with SKIP LOCKED, so concurrent workers never pick the same job, and
+     * are marked RUNNING under a lease ending at {@code leaseUntil}. The returned jobs
+     * already reflect the update; it becomes visible when the calling transaction commits.
+     */
+    List<BackgroundJob> claim(String queue, String owner, LocalDateTime now, LocalDateTime leaseUntil, int limit);
+}
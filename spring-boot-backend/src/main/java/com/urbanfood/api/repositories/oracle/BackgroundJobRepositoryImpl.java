@@ -0,0 +1,77 @@
+package com.urbanfood.api.repositories.oracle;
+
+import com.urbanfood.api.models.oracle.BackgroundJob;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BackgroundJobRepositoryImpl implements BackgroundJobRepositoryCustom {
+    // As for the outbox, the row count is capped by the driver because Oracle rejects
+    // FETCH FIRST together with FOR UPDATE
+    private static final String CLAIM_SQL = "SELECT id, payload, dedupe_key, attempts, max_attempts, " +
+            "created_at, available_at, job_type FROM background_jobs " +
+            "WHERE queue_name = ? AND status = 'PENDING' AND available_at <= ? " +
+            "ORDER BY available_at, id FOR UPDATE SKIP LOCKED";
+
+    private static final String MARK_RUNNING_SQL = "UPDATE background_jobs SET status = 'RUNNING', " +
+            "locked_by = ?, locked_until = ?, attempts = attempts + 1 WHERE id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<BackgroundJob> claim(String queue, String owner, LocalDateTime now, LocalDateTime leaseUntil,
+                                     int limit) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            List<BackgroundJob> jobs = new ArrayList<>(limit);
+            try (PreparedStatement statement = connection.prepareStatement(CLAIM_SQL)) {
+                statement.setString(1, queue);
+                statement.setTimestamp(2, Timestamp.valueOf(now));
+                statement.setMaxRows(limit);
+                statement.setFetchSize(limit);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        BackgroundJob job = new BackgroundJob();
+                        job.setId(rows.getLong(1));
+                        job.setQueue(queue);
+                        job.setPayload(rows.getString(2));
+                        job.setDedupeKey(rows.getString(3));
+                        job.setAttempts(rows.getInt(4) + 1);
+                        job.setMaxAttempts(rows.getInt(5));
+                        job.setCreatedAt(rows.getTimestamp(6).toLocalDateTime());
+                        job.setAvailableAt(rows.getTimestamp(7).toLocalDateTime());
+                        job.setJobType(rows.getString(8));
+                        job.setStatus(BackgroundJob.Status.RUNNING);
+                        job.setLockedBy(owner);
+                        job.setLockedUntil(leaseUntil);
+                        jobs.add(job);
+                    }
+                }
+            }
+            if (jobs.isEmpty()) {
+                return jobs;
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(MARK_RUNNING_SQL)) {
+                for (BackgroundJob job : jobs) {
+                    statement.setString(1, owner);
+                    statement.setTimestamp(2, Timestamp.valueOf(leaseUntil));
+                    statement.setLong(3, job.getId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            return jobs;
+        });
+    }
+}
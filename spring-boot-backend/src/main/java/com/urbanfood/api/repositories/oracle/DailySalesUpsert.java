@@ -0,0 +1,37 @@
+package com.urbanfood.api.repositories.oracle;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Runs a rollup MERGE. Two transactions can both see no row for the same day and both
+ * take the insert branch; the loser gets a unique-key violation, and since only that
+ * statement is rolled back it can simply run again and take the update branch.
+ */
+final class DailySalesUpsert {
+    interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    private DailySalesUpsert() {
+    }
+
+    static void execute(Connection connection, String sql, Binder binder) throws SQLException {
+        try {
+            run(connection, sql, binder);
+        } catch (SQLException e) {
+            if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                throw e;
+            }
+            run(connection, sql, binder);
+        }
+    }
+
+    private static void run(Connection connection, String sql, Binder binder) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            binder.bind(statement);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.urbanfood.api.repositories.oracle;
+
+import com.urbanfood.api.models.oracle.FarmerDailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface FarmerDailySalesRepository extends JpaRepository<FarmerDailySales, Long>,
+        FarmerDailySalesRepositoryCustom {
+    List<FarmerDailySales> findByFarmerIdAndSalesDateBetweenOrderBySalesDateAsc(Long farmerId, LocalDate from, LocalDate to);
+}
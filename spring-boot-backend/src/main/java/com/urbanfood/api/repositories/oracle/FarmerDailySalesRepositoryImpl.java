@@ -0,0 +1,53 @@
+package com.urbanfood.api.repositories.oracle;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+
+public class FarmerDailySalesRepositoryImpl implements FarmerDailySalesRepositoryCustom {
+    private static final String ADD_SQL = "MERGE INTO farmer_daily_sales t " +
+            "USING (SELECT CAST(? AS NUMBER(19)) AS farmer_id, CAST(? AS DATE) AS sales_date FROM dual) s " +
+            "ON (t.farmer_id = s.farmer_id AND t.sales_date = s.sales_date) " +
+            "WHEN MATCHED THEN UPDATE SET t.units = t.units + ?, t.revenue = t.revenue + ?, " +
+            "t.order_count = t.order_count + 1 " +
+            "WHEN NOT MATCHED THEN INSERT (farmer_id, sales_date, units, revenue, order_count) " +
+            "VALUES (s.farmer_id, s.sales_date, ?, ?, 1)";
+
+    private static final String REBUILD_SQL = "INSERT INTO farmer_daily_sales " +
+            "(farmer_id, sales_date, units, revenue, order_count) " +
+            "SELECT p.farmer_id, TRUNC(o.order_date), SUM(i.quantity), SUM(i.unit_price * i.quantity), " +
+            "COUNT(DISTINCT o.id) " +
+            "FROM orders o JOIN order_items i ON i.order_id = o.id JOIN products p ON p.id = i.product_id " +
+            "WHERE o.order_date IS NOT NULL AND p.farmer_id IS NOT NULL " +
+            "GROUP BY p.farmer_id, TRUNC(o.order_date)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addOrder(Long farmerId, LocalDate salesDate, long units, BigDecimal revenue) {
+        entityManager.unwrap(Session.class).doWork(connection -> DailySalesUpsert.execute(connection, ADD_SQL,
+                statement -> {
+                    statement.setLong(1, farmerId);
+                    statement.setDate(2, Date.valueOf(salesDate));
+                    statement.setLong(3, units);
+                    statement.setBigDecimal(4, revenue);
+                    statement.setLong(5, units);
+                    statement.setBigDecimal(6, revenue);
+                }));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int rebuildFromOrders() {
+        entityManager.createNativeQuery("DELETE FROM farmer_daily_sales").executeUpdate();
+        return entityManager.createNativeQuery(REBUILD_SQL).executeUpdate();
+    }
+}
@@ -2,11 +2,20 @@ package com.urbanfood.api.repositories.oracle;
 
 import com.urbanfood.api.models.oracle.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
+@Transactional(readOnly = true)
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+
+    @Query("SELECT i FROM OrderItem i JOIN FETCH i.order o JOIN FETCH i.product " +
+           "WHERE o.id > :afterOrderId AND o.id <= :lastOrderId ORDER BY o.id, i.id")
+    List<OrderItem> findByOrderIdRange(@Param("afterOrderId") Long afterOrderId,
+                                       @Param("lastOrderId") Long lastOrderId);
 }
\ No newline at end of file
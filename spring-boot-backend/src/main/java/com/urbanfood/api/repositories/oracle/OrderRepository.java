@@ -1,17 +1,28 @@
 package com.urbanfood.api.repositories.oracle;
 
 import com.urbanfood.api.models.oracle.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
+@Transactional(readOnly = true)
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
     
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id = :id")
     Order findByIdWithItems(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.product WHERE o.id = :id")
+    Order findByIdWithItemsAndProducts(@Param("id") Long id);
+
+    long countByOrderDateIsNull();
+
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId ORDER BY o.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.urbanfood.api.repositories.oracle;
+
+import com.urbanfood.api.models.oracle.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventRepositoryCustom {
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.availableAt = :availableAt, " +
+            "e.lastError = :error WHERE e.id IN :ids")
+    int reschedule(@Param("ids") Collection<Long> ids, @Param("availableAt") LocalDateTime availableAt,
+                   @Param("error") String error);
+}
@@ -0,0 +1,15 @@
+package com.urbanfood.api.repositories.oracle;
+
+import com.urbanfood.api.models.oracle.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepositoryCustom {
+    /**
+     * Locks up to {@code limit} of the oldest events that are due, skipping rows another
+     * relay has already locked, so several instances can drain the outbox side by side.
+     * The locks are held until the calling transaction ends.
+     */
+    List<OutboxEvent> claim(LocalDateTime now, int limit);
+}
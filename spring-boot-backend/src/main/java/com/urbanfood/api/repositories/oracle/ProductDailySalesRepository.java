@@ -0,0 +1,14 @@
+package com.urbanfood.api.repositories.oracle;
+
+import com.urbanfood.api.models.oracle.ProductDailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProductDailySalesRepository extends JpaRepository<ProductDailySales, Long>,
+        ProductDailySalesRepositoryCustom {
+    List<ProductDailySales> findByFarmerIdAndSalesDateBetweenOrderBySalesDateAscProductIdAsc(Long farmerId, LocalDate from, LocalDate to);
+}
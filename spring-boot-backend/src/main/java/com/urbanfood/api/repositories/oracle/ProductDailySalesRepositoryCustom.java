@@ -0,0 +1,18 @@
+package com.urbanfood.api.repositories.oracle;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface ProductDailySalesRepositoryCustom {
+    /**
+     * Adds one order's sales to the product's row for that day, creating it if needed.
+     * Must run inside the order's own transaction.
+     */
+    void addOrder(Long productId, Long farmerId, LocalDate salesDate, long units, BigDecimal revenue);
+
+    /**
+     * Replaces every row with totals computed from order history in a single statement,
+     * so the totals come from one consistent read. Orders without a date are left out.
+     */
+    int rebuildFromOrders();
+}
@@ -1,21 +1,40 @@
 package com.urbanfood.api.repositories.oracle;
 
 import com.urbanfood.api.models.oracle.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+@Transactional(readOnly = true)
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductRepositoryCustom {
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Product> findByCategoryId(Long categoryId);
     
     List<Product> findByFarmerId(Long farmerId);
     
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Product> findByFeaturedTrue();
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
     
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Product> findByKeyword(@Param("keyword") String keyword);
+
+    // Row locks are taken in id order so concurrent checkouts cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.urbanfood.api.repositories.oracle;
+
+import com.urbanfood.api.models.oracle.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+    /**
+     * Selects only the given Product attributes for the rows matching the specification.
+     * Each row is returned as an attribute name to value map.
+     */
+    List<Map<String, Object>> findAttributes(Collection<String> attributes, Specification<Product> specification);
+
+    /**
+     * Locks the given products (in id order, so concurrent callers cannot deadlock) and
+     * returns their current versions. Ids that do not exist are absent from the map.
+     */
+    Map<Long, Long> lockVersions(Collection<Long> ids);
+
+    /**
+     * Writes the patches with JDBC batches on the current transaction's connection, one
+     * statement per combination of changed columns, bumping each version. A row is only
+     * updated while it is still at the given version. Returns the rows updated per patch.
+     */
+    int[] applyPatches(List<PatchRow> patches, int batchSize);
+
+    /** Null fields are left unchanged. */
+    record PatchRow(long id, long version, String price, Integer stock, Boolean featured) {
+    }
+}
@@ -0,0 +1,140 @@
+package com.urbanfood.api.repositories.oracle;
+
+import com.urbanfood.api.models.oracle.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.Session;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+    // Oracle rejects IN lists longer than 1000 elements
+    private static final int MAX_IN_LIST = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAttributes(Collection<String> attributes, Specification<Product> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+
+        List<Selection<?>> selections = new ArrayList<>(attributes.size());
+        for (String attribute : attributes) {
+            selections.add(root.get(attribute).alias(attribute));
+        }
+        query.multiselect(selections);
+        query.where(specification.toPredicate(root, query, cb));
+        query.orderBy(cb.asc(root.get("id")));
+
+        List<Tuple> tuples = entityManager.createQuery(query).getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String attribute : attributes) {
+                row.put(attribute, tuple.get(attribute));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Long> lockVersions(Collection<Long> ids) {
+        List<Long> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        Map<Long, Long> versions = new LinkedHashMap<>();
+        for (int from = 0; from < sorted.size(); from += MAX_IN_LIST) {
+            List<?> rows = entityManager.createNativeQuery(
+                            "SELECT id, version FROM products WHERE id IN (:ids) ORDER BY id FOR UPDATE")
+                    .setParameter("ids", sorted.subList(from, Math.min(sorted.size(), from + MAX_IN_LIST)))
+                    .getResultList();
+            for (Object row : rows) {
+                Object[] columns = (Object[]) row;
+                versions.put(((Number) columns[0]).longValue(), ((Number) columns[1]).longValue());
+            }
+        }
+        return versions;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int[] applyPatches(List<PatchRow> patches, int batchSize) {
+        Map<Integer, List<Integer>> byShape = new LinkedHashMap<>();
+        for (int i = 0; i < patches.size(); i++) {
+            byShape.computeIfAbsent(shape(patches.get(i)), key -> new ArrayList<>()).add(i);
+        }
+
+        int[] updated = new int[patches.size()];
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            for (Map.Entry<Integer, List<Integer>> group : byShape.entrySet()) {
+                try (PreparedStatement statement = connection.prepareStatement(updateSql(group.getKey()))) {
+                    List<Integer> indexes = group.getValue();
+                    for (int from = 0; from < indexes.size(); from += batchSize) {
+                        List<Integer> batch = indexes.subList(from, Math.min(indexes.size(), from + batchSize));
+                        for (int index : batch) {
+                            bind(statement, patches.get(index));
+                            statement.addBatch();
+                        }
+                        int[] counts = statement.executeBatch();
+                        for (int i = 0; i < batch.size(); i++) {
+                            // Older Oracle drivers report SUCCESS_NO_INFO for batched statements
+                            updated[batch.get(i)] = counts[i] == Statement.SUCCESS_NO_INFO ? 1 : counts[i];
+                        }
+                    }
+                }
+            }
+        });
+        return updated;
+    }
+
+    private static int shape(PatchRow patch) {
+        return (patch.price() != null ? 1 : 0) | (patch.stock() != null ? 2 : 0) | (patch.featured() != null ? 4 : 0);
+    }
+
+    private static String updateSql(int shape) {
+        StringBuilder sql = new StringBuilder("UPDATE products SET ");
+        if ((shape & 1) != 0) {
+            sql.append("price = ?, ");
+        }
+        if ((shape & 2) != 0) {
+            sql.append("stock = ?, ");
+        }
+        if ((shape & 4) != 0) {
+            sql.append("featured = ?, ");
+        }
+        return sql.append("version = version + 1 WHERE id = ? AND version = ?").toString();
+    }
+
+    private static void bind(PreparedStatement statement, PatchRow patch) throws SQLException {
+        int parameter = 1;
+        if (patch.price() != null) {
+            statement.setString(parameter++, patch.price());
+        }
+        if (patch.stock() != null) {
+            statement.setInt(parameter++, patch.stock());
+        }
+        if (patch.featured() != null) {
+            statement.setBoolean(parameter++, patch.featured());
+        }
+        statement.setLong(parameter++, patch.id());
+        statement.setLong(parameter, patch.version());
+    }
+}
@@ -0,0 +1,44 @@
+package com.urbanfood.api.repositories.oracle;
+
+import com.urbanfood.api.models.oracle.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Criteria equivalents of the ProductRepository finders, for use with projections.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> all() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+
+    public static Specification<Product> featured() {
+        return (root, query, cb) -> cb.isTrue(root.get("featured"));
+    }
+
+    public static Specification<Product> inCategory(Long categoryId) {
+        return (root, query, cb) -> cb.equal(root.get("categoryId"), categoryId);
+    }
+
+    public static Specification<Product> byFarmer(Long farmerId) {
+        return (root, query, cb) -> cb.equal(root.get("farmerId"), farmerId);
+    }
+
+    public static Specification<Product> byFarmers(Collection<Long> farmerIds) {
+        return (root, query, cb) -> root.get("farmerId").in(farmerIds);
+    }
+
+    public static Specification<Product> matchingKeyword(String keyword) {
+        return (root, query, cb) -> {
+            String pattern = "%" + keyword.toLowerCase() + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("name")), pattern),
+                    cb.like(cb.lower(root.get("description")), pattern));
+        };
+    }
+}
@@ -1,13 +1,29 @@
 package com.urbanfood.api.repositories.oracle;
 
 import com.urbanfood.api.models.oracle.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // SimpleJpaRepository marks these read-only, which would send them to the replica;
+    // a user who just signed up must be found straight away
+    @Override
+    @Transactional
+    Optional<User> findById(Long id);
+
+    @Override
+    @Transactional
+    List<User> findAllById(Iterable<Long> ids);
+
     Optional<User> findByUsername(String username);
     
     Optional<User> findByEmail(String email);
@@ -15,4 +31,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByUsername(String username);
     
     Boolean existsByEmail(String email);
+
+    @Query("SELECT u FROM User u WHERE u.isFarmer = true")
+    List<User> findAllFarmers();
+
+    // Scalar rows only, so the persistence context stays empty however many users there are
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT u.username, u.email FROM User u")
+    Stream<Object[]> streamUsernamesAndEmails();
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package com.urbanfood.api.security.config;
 
+import com.urbanfood.api.filters.ConcurrencyLimitFilter;
+import com.urbanfood.api.filters.RateLimitFilter;
 import com.urbanfood.api.security.jwt.AuthEntryPointJwt;
 import com.urbanfood.api.security.jwt.AuthTokenFilter;
 import com.urbanfood.api.security.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -37,6 +40,16 @@ public class WebSecurityConfig {
         return new AuthTokenFilter();
     }
 
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter() {
+        return new ConcurrencyLimitFilter();
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter() {
+        return new RateLimitFilter();
+    }
+
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
@@ -80,11 +93,16 @@ public class WebSecurityConfig {
                     .requestMatchers("/api/public/**").permitAll()
                     .requestMatchers("/api/categories/**").permitAll()
                     .requestMatchers("/api/products/**").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/api/reactive/**").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/api/images/**").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/actuator/health/**").permitAll()
                     .anyRequest().authenticated()
             );
         
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(concurrencyLimitFilter(), AuthTokenFilter.class);
+        http.addFilterAfter(rateLimitFilter(), AuthTokenFilter.class);
         
         return http.build();
     }
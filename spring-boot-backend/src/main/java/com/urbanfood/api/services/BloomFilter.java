@@ -0,0 +1,109 @@
+package com.urbanfood.api.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size Bloom filter over strings. Adds and lookups are lock-free and may run
+ * concurrently; a lookup never misses a string whose add has returned. The bit array is
+ * sized from the expected number of entries and the target false-positive rate, and the
+ * k bit positions come from two 64-bit hashes combined as h1 + i * h2.
+ */
+public class BloomFilter {
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong insertions = new AtomicLong();
+
+    private BloomFilter(long bitCount, int hashCount) {
+        this.words = new AtomicLongArray((int) (bitCount >>> 6));
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    public static BloomFilter create(long expectedEntries, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1");
+        }
+        long entries = Math.max(1, expectedEntries);
+        long bits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (LN2 * LN2));
+        // Whole words, and at most what one long[] can index
+        bits = Math.min(Math.max(64, (bits + 63) & ~63L), (long) Integer.MAX_VALUE << 6);
+        int hashes = Math.max(1, (int) Math.round((double) bits / entries * LN2));
+        return new BloomFilter(bits, hashes);
+    }
+
+    public void put(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(index);
+            while ((current & mask) == 0 && !words.compareAndSet(index, current, current | mask)) {
+                current = words.get(index);
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    /** False means the value was certainly never added; true means it may have been. */
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    public long getSizeBytes() {
+        return bitCount >>> 3;
+    }
+
+    /** Rate implied by the bits actually set, which drifts above the target once the filter overfills. */
+    public double estimatedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < words.length(); i++) {
+            set += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) set / bitCount, hashCount);
+    }
+
+    // FNV-1a over the UTF-16 code units, finished with the MurmurHash3 avalanche
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,262 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.CartDto;
+import com.urbanfood.api.dto.CartItemDto;
+import com.urbanfood.api.dto.CheckoutRequest;
+import com.urbanfood.api.dto.OrderDto;
+import com.urbanfood.api.dto.OrderItemDto;
+import com.urbanfood.api.events.CatalogChangedEvent;
+import com.urbanfood.api.models.oracle.Order;
+import com.urbanfood.api.models.oracle.OrderItem;
+import com.urbanfood.api.models.oracle.Product;
+import com.urbanfood.api.repositories.oracle.OrderRepository;
+import com.urbanfood.api.repositories.oracle.ProductRepository;
+import com.urbanfood.api.repositories.oracle.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side carts. Reads are answered from the in-memory cart store and price cache
+ * only; the database is touched once per checkout, with a single locked batch read that
+ * revalidates stock and price for every line before the order is written.
+ */
+@Service
+public class CartService {
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private ProductPriceCache priceCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate checkoutTransaction;
+
+    private final Set<Long> checkingOut = ConcurrentHashMap.newKeySet();
+
+    public CartService(PlatformTransactionManager transactionManager) {
+        this.checkoutTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public CartDto getCart(Long userId) {
+        return toDto(cartStore.get(userId));
+    }
+
+    public CartDto addItem(Long userId, Long productId, int quantity) {
+        long unitPrice = toMinorUnits(requireKnownProduct(productId).price());
+        return toDto(cartStore.add(userId, productId, quantity, unitPrice));
+    }
+
+    public CartDto setItem(Long userId, Long productId, int quantity) {
+        long unitPrice = quantity > 0 ? toMinorUnits(requireKnownProduct(productId).price()) : CartStore.NO_PRICE;
+        return toDto(cartStore.set(userId, productId, quantity, unitPrice));
+    }
+
+    public CartDto removeItem(Long userId, Long productId) {
+        return toDto(cartStore.set(userId, productId, 0, CartStore.NO_PRICE));
+    }
+
+    public void clear(Long userId) {
+        cartStore.clear(userId);
+    }
+
+    private ProductPriceCache.CachedProduct requireKnownProduct(Long productId) {
+        ProductPriceCache.CachedProduct product = priceCache.get(productId);
+        if (product == null) {
+            throw new IllegalArgumentException("Product " + productId + " does not exist");
+        }
+        return product;
+    }
+
+    // Order lines are stored with two decimals, so prices are compared at that scale
+    private static long toMinorUnits(BigDecimal price) {
+        return price != null ? price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact()
+                : CartStore.NO_PRICE;
+    }
+
+    /**
+     * Turns the cart into an order. Lines that are gone, out of stock, or whose price differs
+     * from the one recorded when the line was added are reported as conflicts and nothing is
+     * written. A conflicting line takes the new price, so checking out again accepts it, and
+     * the price cache is refreshed from the same read so the next cart view is current.
+     */
+    public OrderDto checkout(Long userId, CheckoutRequest request) {
+        if (!checkingOut.add(userId)) {
+            throw new CheckoutConflictException(List.of("A checkout for this cart is already in progress"));
+        }
+        try {
+            CartStore.Lines lines = cartStore.get(userId);
+            if (lines.size() == 0) {
+                throw new IllegalArgumentException("Cart is empty");
+            }
+            OrderDto order = checkoutTransaction.execute(status -> placeOrder(userId, lines, request));
+            cartStore.remove(userId, lines.productIds());
+            return order;
+        } finally {
+            checkingOut.remove(userId);
+        }
+    }
+
+    private OrderDto placeOrder(Long userId, CartStore.Lines lines, CheckoutRequest request) {
+        List<Long> ids = new ArrayList<>(lines.size());
+        for (long productId : lines.productIds()) {
+            ids.add(productId);
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllByIdForUpdate(ids)) {
+            products.put(product.getId(), product);
+        }
+
+        List<String> conflicts = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            long productId = lines.productIds()[i];
+            int quantity = lines.quantities()[i];
+            Product product = products.get(productId);
+            if (product == null) {
+                conflicts.add("Product " + productId + " is no longer available");
+                continue;
+            }
+            BigDecimal price = ProductPriceCache.parsePrice(product.getPrice());
+            priceCache.put(product);
+            if (price == null) {
+                conflicts.add(product.getName() + " has no price");
+            } else if (toMinorUnits(price) != lines.unitPrices()[i]) {
+                conflicts.add("The price of " + product.getName() + " changed to " + price);
+                cartStore.reprice(userId, productId, toMinorUnits(price));
+            }
+            if (product.getStock() != null && product.getStock() < quantity) {
+                conflicts.add("Only " + Math.max(0, product.getStock()) + " of " + product.getName() + " left in stock");
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new CheckoutConflictException(conflicts);
+        }
+
+        Order order = new Order();
+        order.setUser(userRepository.getReferenceById(userId));
+        order.setStatus("PENDING");
+        order.setOrderDate(LocalDateTime.now());
+        order.setShippingAddress(request.getShippingAddress());
+        order.setContactPhone(request.getContactPhone());
+        order.setPaymentMethod(request.getPaymentMethod());
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines.size(); i++) {
+            Product product = products.get(lines.productIds()[i]);
+            int quantity = lines.quantities()[i];
+            if (product.getStock() != null) {
+                product.setStock(product.getStock() - quantity);
+                // Stock is part of the catalog snapshots and cached product rows
+                eventPublisher.publishEvent(CatalogChangedEvent.product(this, product.getId()));
+            }
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(quantity);
+            item.setUnitPrice(ProductPriceCache.parsePrice(product.getPrice()));
+            order.getOrderItems().add(item);
+            total = total.add(item.getUnitPrice().multiply(BigDecimal.valueOf(quantity)));
+        }
+        order.setTotalAmount(total);
+        return toDto(orderRepository.save(order), userId);
+    }
+
+    private CartDto toDto(CartStore.Lines lines) {
+        CartDto cart = new CartDto();
+        BigDecimal total = BigDecimal.ZERO;
+        int totalQuantity = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            long productId = lines.productIds()[i];
+            int quantity = lines.quantities()[i];
+            ProductPriceCache.CachedProduct product = priceCache.get(productId);
+
+            CartItemDto item = new CartItemDto();
+            item.setProductId(productId);
+            item.setQuantity(quantity);
+            if (product != null) {
+                item.setName(product.name());
+                item.setImageUrl(product.imageUrl());
+                item.setUnit(product.unit());
+                item.setUnitPrice(product.price());
+                item.setPriceChanged(toMinorUnits(product.price()) != lines.unitPrices()[i]);
+            }
+            boolean available = product != null && product.price() != null
+                    && (product.stock() == null || product.stock() >= quantity);
+            item.setAvailable(available);
+            if (product != null && product.price() != null) {
+                item.setSubtotal(product.price().multiply(BigDecimal.valueOf(quantity)));
+                total = total.add(item.getSubtotal());
+            }
+            totalQuantity += quantity;
+            cart.getItems().add(item);
+        }
+        cart.setTotalQuantity(totalQuantity);
+        cart.setTotalAmount(total);
+        return cart;
+    }
+
+    private static OrderDto toDto(Order order, Long userId) {
+        OrderDto dto = new OrderDto();
+        dto.setId(order.getId());
+        dto.setStatus(order.getStatus());
+        dto.setUserId(userId);
+        dto.setOrderDate(order.getOrderDate());
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setShippingAddress(order.getShippingAddress());
+        dto.setContactPhone(order.getContactPhone());
+        dto.setPaymentMethod(order.getPaymentMethod());
+        List<OrderItemDto> items = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            OrderItemDto itemDto = new OrderItemDto();
+            itemDto.setId(item.getId());
+            itemDto.setOrderId(order.getId());
+            itemDto.setProductId(item.getProduct().getId());
+            itemDto.setProductName(item.getProduct().getName());
+            itemDto.setQuantity(item.getQuantity());
+            itemDto.setPrice(item.getUnitPrice());
+            itemDto.setSubtotal(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            items.add(itemDto);
+        }
+        dto.setOrderItems(items);
+        return dto;
+    }
+
+    public static class CheckoutConflictException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> conflicts;
+
+        public CheckoutConflictException(List<String> conflicts) {
+            super(String.join("; ", conflicts));
+            this.conflicts = conflicts;
+        }
+
+        public List<String> getConflicts() {
+            return conflicts;
+        }
+    }
+}
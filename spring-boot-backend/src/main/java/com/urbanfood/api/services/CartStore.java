@@ -0,0 +1,244 @@
+package com.urbanfood.api.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory carts keyed by user id. Users are spread over lock stripes so concurrent
+ * requests only contend when they hash to the same stripe, and each cart is a set of
+ * parallel primitive arrays (product id, quantity, unit price in minor units at the time
+ * the line was last added or set) rather than a map of boxed values.
+ * Carts idle for longer than the TTL are dropped on access and by a periodic sweep.
+ */
+@Component
+public class CartStore {
+    /** Unit price of a line whose product had no price when it was added. */
+    public static final long NO_PRICE = Long.MIN_VALUE;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final long ttlMs;
+    private final int maxLines;
+
+    public CartStore(@Value("${app.cart.stripes:64}") int stripeCount,
+                     @Value("${app.cart.ttl-minutes:1440}") long ttlMinutes,
+                     @Value("${app.cart.max-lines:100}") int maxLines) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount) * 2 - 1);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = count - 1;
+        this.ttlMs = ttlMinutes * 60_000;
+        this.maxLines = maxLines;
+    }
+
+    /** An immutable copy of a cart's lines, in the order they were first added. */
+    public record Lines(long[] productIds, int[] quantities, long[] unitPrices) {
+        static final Lines EMPTY = new Lines(new long[0], new int[0], new long[0]);
+
+        public int size() {
+            return productIds.length;
+        }
+    }
+
+    public Lines get(Long userId) {
+        Stripe stripe = stripe(userId);
+        stripe.lock.lock();
+        try {
+            Cart cart = live(stripe, userId, System.currentTimeMillis());
+            return cart != null ? cart.lines() : Lines.EMPTY;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds delta to the line's quantity (creating it if needed) and records the unit price
+     * the user was shown; a resulting quantity of zero or less removes the line.
+     */
+    public Lines add(Long userId, long productId, int delta, long unitPrice) {
+        return update(userId, productId, delta, true, unitPrice);
+    }
+
+    /** Sets the line's quantity and unit price; a quantity of zero or less removes the line. */
+    public Lines set(Long userId, long productId, int quantity, long unitPrice) {
+        return update(userId, productId, quantity, false, unitPrice);
+    }
+
+    private Lines update(Long userId, long productId, int value, boolean relative, long unitPrice) {
+        Stripe stripe = stripe(userId);
+        stripe.lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            Cart cart = live(stripe, userId, now);
+            if (cart == null) {
+                if (value <= 0) {
+                    return Lines.EMPTY;
+                }
+                cart = new Cart();
+                stripe.carts.put(userId, cart);
+            }
+            int index = cart.indexOf(productId);
+            int quantity = relative ? (index >= 0 ? cart.quantities[index] : 0) + value : value;
+            if (quantity <= 0) {
+                if (index >= 0) {
+                    cart.removeAt(index);
+                }
+            } else if (index >= 0) {
+                cart.quantities[index] = quantity;
+                cart.unitPrices[index] = unitPrice;
+            } else {
+                if (cart.size >= maxLines) {
+                    throw new IllegalArgumentException("A cart can hold at most " + maxLines + " different products");
+                }
+                cart.append(productId, quantity, unitPrice);
+            }
+            cart.lastAccessMs = now;
+            if (cart.size == 0) {
+                stripe.carts.remove(userId);
+            }
+            return cart.lines();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /** Removes the given products from the cart, e.g. once they have been ordered. */
+    public void remove(Long userId, long[] productIds) {
+        Stripe stripe = stripe(userId);
+        stripe.lock.lock();
+        try {
+            Cart cart = stripe.carts.get(userId);
+            if (cart == null) {
+                return;
+            }
+            for (long productId : productIds) {
+                int index = cart.indexOf(productId);
+                if (index >= 0) {
+                    cart.removeAt(index);
+                }
+            }
+            if (cart.size == 0) {
+                stripe.carts.remove(userId);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /** Updates the unit price of an existing line, e.g. after checkout reported a new price. */
+    public void reprice(Long userId, long productId, long unitPrice) {
+        Stripe stripe = stripe(userId);
+        stripe.lock.lock();
+        try {
+            Cart cart = stripe.carts.get(userId);
+            int index = cart != null ? cart.indexOf(productId) : -1;
+            if (index >= 0) {
+                cart.unitPrices[index] = unitPrice;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public void clear(Long userId) {
+        Stripe stripe = stripe(userId);
+        stripe.lock.lock();
+        try {
+            stripe.carts.remove(userId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                Iterator<Cart> carts = stripe.carts.values().iterator();
+                while (carts.hasNext()) {
+                    if (now - carts.next().lastAccessMs > ttlMs) {
+                        carts.remove();
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private Cart live(Stripe stripe, Long userId, long now) {
+        Cart cart = stripe.carts.get(userId);
+        if (cart != null && now - cart.lastAccessMs > ttlMs) {
+            stripe.carts.remove(userId);
+            return null;
+        }
+        if (cart != null) {
+            cart.lastAccessMs = now;
+        }
+        return cart;
+    }
+
+    private Stripe stripe(Long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h ^ (h >>> 32)) & stripeMask];
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, Cart> carts = new HashMap<>();
+    }
+
+    private static final class Cart {
+        private long[] productIds = new long[4];
+        private int[] quantities = new int[4];
+        private long[] unitPrices = new long[4];
+        private int size;
+        private long lastAccessMs;
+
+        private int indexOf(long productId) {
+            // Carts are small, so a linear scan beats hashing
+            for (int i = 0; i < size; i++) {
+                if (productIds[i] == productId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void append(long productId, int quantity, long unitPrice) {
+            if (size == productIds.length) {
+                productIds = Arrays.copyOf(productIds, size * 2);
+                quantities = Arrays.copyOf(quantities, size * 2);
+                unitPrices = Arrays.copyOf(unitPrices, size * 2);
+            }
+            productIds[size] = productId;
+            quantities[size] = quantity;
+            unitPrices[size] = unitPrice;
+            size++;
+        }
+
+        private void removeAt(int index) {
+            int tail = size - index - 1;
+            System.arraycopy(productIds, index + 1, productIds, index, tail);
+            System.arraycopy(quantities, index + 1, quantities, index, tail);
+            System.arraycopy(unitPrices, index + 1, unitPrices, index, tail);
+            size--;
+        }
+
+        private Lines lines() {
+            return new Lines(Arrays.copyOf(productIds, size), Arrays.copyOf(quantities, size),
+                    Arrays.copyOf(unitPrices, size));
+        }
+    }
+}
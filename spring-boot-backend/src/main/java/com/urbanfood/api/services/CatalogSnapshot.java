@@ -0,0 +1,109 @@
+package com.urbanfood.api.services;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A pre-rendered JSON response body held in memory in identity and gzip form.
+ */
+public final class CatalogSnapshot {
+    private final byte[] identity;
+    private final byte[] gzip;
+    private final String etag;
+
+    private CatalogSnapshot(byte[] identity, byte[] gzip, String etag) {
+        this.identity = identity;
+        this.gzip = gzip;
+        this.etag = etag;
+    }
+
+    public static CatalogSnapshot of(byte[] json) {
+        return new CatalogSnapshot(json, gzip(json), etag(json));
+    }
+
+    public int getIdentitySize() {
+        return identity.length;
+    }
+
+    public int getGzipSize() {
+        return gzip.length;
+    }
+
+    public ResponseEntity<byte[]> toResponse(String acceptEncoding, String ifNoneMatch) {
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (acceptsGzip(acceptEncoding)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(gzip.length)
+                    .body(gzip);
+        }
+        return builder.contentLength(identity.length).body(identity);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            // An explicit q=0 means the client refuses this coding
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.urbanfood.api.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbanfood.api.dto.CategoryDto;
+import com.urbanfood.api.events.CatalogChangedEvent;
+import com.urbanfood.api.models.oracle.Category;
+import com.urbanfood.api.repositories.oracle.CategoryRepository;
+import com.urbanfood.api.repositories.oracle.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the anonymous catalog responses rendered as ready-to-send byte arrays.
+ * Any catalog change drops the affected snapshots immediately (requests fall
+ * back to the live path) and schedules a single coalesced rebuild.
+ */
+@Service
+public class CatalogSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    public static final String ALL_PRODUCTS = "products";
+    public static final String FEATURED_PRODUCTS = "products/featured";
+    public static final String ALL_CATEGORIES = "categories";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductDtoService productDtoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.catalog.snapshots.enabled:true}")
+    private boolean enabled;
+
+    private final TransactionTemplate primaryTransaction;
+
+    private final AtomicReference<Snapshots> current = new AtomicReference<>(new Snapshots(0, Map.of()));
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CatalogSnapshotService(PlatformTransactionManager transactionManager) {
+        // Not read-only: a rebuild after a change must not render the replica's older rows
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public ResponseEntity<byte[]> serve(String key, String acceptEncoding, String ifNoneMatch) {
+        CatalogSnapshot snapshot = current.get().byKey.get(key);
+        return snapshot != null ? snapshot.toResponse(acceptEncoding, ifNoneMatch) : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    /**
+     * Renders the snapshots on the calling thread; used by the startup warm-up so the
+     * first requests after readiness are already served from memory.
+     */
+    public void rebuildNow() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Deleting a category cascades to its products, so category changes drop everything
+        invalidate(event.getEntityType() == CatalogChangedEvent.EntityType.CATEGORY
+                ? List.of(ALL_PRODUCTS, FEATURED_PRODUCTS, ALL_CATEGORIES)
+                : List.of(ALL_PRODUCTS, FEATURED_PRODUCTS));
+        scheduleRebuild();
+    }
+
+    private void invalidate(List<String> keys) {
+        current.updateAndGet(snapshots -> snapshots.without(keys));
+    }
+
+    private void scheduleRebuild() {
+        if (!enabled || !rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        rebuilder.execute(() -> {
+            rebuildScheduled.set(false);
+            rebuild();
+        });
+    }
+
+    private void rebuild() {
+        long generation = current.get().generation;
+        try {
+            Map<String, Object> bodies = primaryTransaction.execute(status -> Map.of(
+                    ALL_PRODUCTS, productDtoService.toDtos(productRepository.findAll()),
+                    FEATURED_PRODUCTS, productDtoService.toDtos(productRepository.findByFeaturedTrue()),
+                    ALL_CATEGORIES, categoryRepository.findAll().stream()
+                            .map(CatalogSnapshotService::toCategoryDto)
+                            .collect(Collectors.toList())));
+            Map<String, CatalogSnapshot> rendered = Map.of(
+                    ALL_PRODUCTS, render(bodies.get(ALL_PRODUCTS)),
+                    FEATURED_PRODUCTS, render(bodies.get(FEATURED_PRODUCTS)),
+                    ALL_CATEGORIES, render(bodies.get(ALL_CATEGORIES)));
+
+            // Only install if no change happened while we were rendering
+            Snapshots installed = current.updateAndGet(snapshots ->
+                    snapshots.generation == generation ? snapshots.with(rendered) : snapshots);
+            if (installed.byKey == rendered) {
+                logger.debug("Catalog snapshots rebuilt: products={}B (gzip {}B), featured={}B, categories={}B",
+                        rendered.get(ALL_PRODUCTS).getIdentitySize(),
+                        rendered.get(ALL_PRODUCTS).getGzipSize(),
+                        rendered.get(FEATURED_PRODUCTS).getIdentitySize(),
+                        rendered.get(ALL_CATEGORIES).getIdentitySize());
+            }
+        } catch (Exception e) {
+            logger.warn("Could not rebuild catalog snapshots, serving live responses: {}", e.getMessage());
+        }
+    }
+
+    private CatalogSnapshot render(Object body) throws JsonProcessingException {
+        return CatalogSnapshot.of(objectMapper.writeValueAsBytes(body));
+    }
+
+    private static CategoryDto toCategoryDto(Category category) {
+        CategoryDto dto = new CategoryDto();
+        dto.setId(category.getId());
+        dto.setName(category.getName());
+        dto.setDescription(category.getDescription());
+        dto.setIcon(category.getIcon());
+        return dto;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private static final class Snapshots {
+        private final long generation;
+        private final Map<String, CatalogSnapshot> byKey;
+
+        private Snapshots(long generation, Map<String, CatalogSnapshot> byKey) {
+            this.generation = generation;
+            this.byKey = byKey;
+        }
+
+        private Snapshots without(List<String> keys) {
+            Map<String, CatalogSnapshot> remaining = new HashMap<>(byKey);
+            keys.forEach(remaining::remove);
+            return new Snapshots(generation + 1, Map.copyOf(remaining));
+        }
+
+        private Snapshots with(Map<String, CatalogSnapshot> rendered) {
+            return new Snapshots(generation, rendered);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.urbanfood.api.services;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Open-addressing int-keyed map for a single writer and lock-free readers. Writes must be
+ * serialized by the caller. A key, once placed, never moves within a table; removal only
+ * clears its value, and a resize copies the live entries into a new table that is
+ * published in one volatile write, so a reader probing any table sees a consistent chain.
+ */
+final class ConcurrentIntObjectMap<V> {
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private static final class Table {
+        private final int[] keys;
+        private final AtomicReferenceArray<Object> values;
+        private final int mask;
+        // Slots holding a key, including removed ones; only the writer touches it
+        private int used;
+
+        private Table(int capacity) {
+            keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+
+        private int slot(int key) {
+            int slot = IntIntHashMap.mix(key) & mask;
+            int current;
+            while ((current = keys[slot]) != EMPTY && current != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    private volatile Table table;
+    private int size;
+
+    ConcurrentIntObjectMap(int expectedSize) {
+        table = new Table(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        return Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        Table current = table;
+        int slot = current.slot(key);
+        // A key seen before its value reads as absent, like a put that has not happened yet
+        return current.keys[slot] == EMPTY ? null : (V) current.values.get(slot);
+    }
+
+    void put(int key, V value) {
+        Table current = table;
+        int slot = current.slot(key);
+        if (current.keys[slot] == EMPTY) {
+            if ((current.used + 1) * 4 > current.keys.length * 3) {
+                resize();
+                put(key, value);
+                return;
+            }
+            current.values.set(slot, value);
+            current.keys[slot] = key;
+            current.used++;
+            size++;
+            return;
+        }
+        if (current.values.getAndSet(slot, value) == null) {
+            size++;
+        }
+    }
+
+    void remove(int key) {
+        Table current = table;
+        int slot = current.slot(key);
+        if (current.keys[slot] != EMPTY && current.values.getAndSet(slot, null) != null) {
+            size--;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        Table current = table;
+        // Removed slots are dropped, so a table full of them is rebuilt at the same size
+        Table resized = new Table(capacityFor(size + 1));
+        for (int slot = 0; slot < current.keys.length; slot++) {
+            Object value = current.values.get(slot);
+            if (value != null) {
+                int target = resized.slot(current.keys[slot]);
+                resized.keys[target] = current.keys[slot];
+                resized.values.set(target, value);
+                resized.used++;
+            }
+        }
+        table = resized;
+    }
+}
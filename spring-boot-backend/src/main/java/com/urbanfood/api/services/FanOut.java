@@ -0,0 +1,146 @@
+package com.urbanfood.api.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs independent lookups for one request in parallel, in the spirit of JDK 21's
+ * StructuredTaskScope.ShutdownOnFailure: subtasks are forked inside a scope, joined
+ * against a deadline, and anything still running when the scope fails or closes is
+ * cancelled.
+ *
+ * <pre>
+ * try (FanOut.Scope scope = fanOut.open()) {
+ *     FanOut.Subtask&lt;Long&gt; count = scope.fork(() -&gt; reviewRepository.countByProductId(id));
+ *     scope.join();
+ *     return count.get();
+ * }
+ * </pre>
+ */
+public class FanOut {
+    private final ExecutorService executor;
+    private final Duration defaultDeadline;
+    private final TaskDecorator decorator;
+
+    public FanOut(ExecutorService executor, Duration defaultDeadline) {
+        this(executor, defaultDeadline, TaskDecorator.NONE);
+    }
+
+    public FanOut(ExecutorService executor, Duration defaultDeadline, TaskDecorator decorator) {
+        this.executor = executor;
+        this.defaultDeadline = defaultDeadline;
+        this.decorator = decorator;
+    }
+
+    /** Wraps each subtask on the forking thread, e.g. to carry request-scoped state across. */
+    public interface TaskDecorator {
+        TaskDecorator NONE = FanOut::undecorated;
+
+        <T> Callable<T> decorate(Callable<T> task);
+    }
+
+    private static <T> Callable<T> undecorated(Callable<T> task) {
+        return task;
+    }
+
+    public Scope open() {
+        return open(defaultDeadline);
+    }
+
+    public Scope open(Duration deadline) {
+        return new Scope(executor, decorator, System.nanoTime() + deadline.toNanos());
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final ExecutorService executor;
+        private final TaskDecorator decorator;
+        private final long deadlineNanos;
+        private final List<Subtask<?>> subtasks = new ArrayList<>();
+        private boolean joined;
+
+        private Scope(ExecutorService executor, TaskDecorator decorator, long deadlineNanos) {
+            this.executor = executor;
+            this.decorator = decorator;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public <T> Subtask<T> fork(Callable<T> task) {
+            if (joined) {
+                throw new IllegalStateException("Cannot fork after join");
+            }
+            Subtask<T> subtask = new Subtask<>(executor.submit(decorator.decorate(task)));
+            subtasks.add(subtask);
+            return subtask;
+        }
+
+        /**
+         * Waits for every subtask. If one fails or the deadline passes, the remaining
+         * subtasks are cancelled and a FanOutException is thrown.
+         */
+        public void join() {
+            joined = true;
+            try {
+                for (Subtask<?> subtask : subtasks) {
+                    long remaining = deadlineNanos - System.nanoTime();
+                    subtask.value = subtask.future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                    subtask.done = true;
+                }
+            } catch (TimeoutException e) {
+                cancelAll();
+                throw new FanOutException("Deadline exceeded before all lookups completed", e);
+            } catch (ExecutionException e) {
+                cancelAll();
+                throw new FanOutException("Lookup failed: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new FanOutException("Interrupted while waiting for lookups", e);
+            }
+        }
+
+        private void cancelAll() {
+            for (Subtask<?> subtask : subtasks) {
+                subtask.future.cancel(true);
+            }
+        }
+
+        @Override
+        public void close() {
+            cancelAll();
+        }
+    }
+
+    public static final class Subtask<T> {
+        private final Future<T> future;
+        private Object value;
+        private boolean done;
+
+        private Subtask(Future<T> future) {
+            this.future = future;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T get() {
+            if (!done) {
+                throw new CancellationException("Subtask has not been joined successfully");
+            }
+            return (T) value;
+        }
+    }
+
+    public static class FanOutException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public FanOutException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
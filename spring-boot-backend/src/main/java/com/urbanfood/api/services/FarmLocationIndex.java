@@ -0,0 +1,134 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.events.UserRegisteredEvent;
+import com.urbanfood.api.models.oracle.User;
+import com.urbanfood.api.repositories.oracle.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Farm locations bucketed into a fixed latitude/longitude grid. A radius query only
+ * visits the cells overlapping the search circle's bounding box, so its cost depends on
+ * the farms nearby rather than on the total number of farmers.
+ */
+@Service
+public class FarmLocationIndex {
+    private static final Logger logger = LoggerFactory.getLogger(FarmLocationIndex.class);
+    private static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostcodeGeocoder geocoder;
+
+    private final double cellDegrees;
+
+    // Cells are copy-on-write arrays; registrations are rare compared to searches
+    private final Map<Long, FarmLocation[]> cells = new ConcurrentHashMap<>();
+
+    public FarmLocationIndex(@Value("${app.geo.cell-size-degrees:0.1}") double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    public record FarmLocation(Long farmerId, GeoPoint location) {
+    }
+
+    public record NearbyFarm(Long farmerId, double distanceKm) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        int indexed = 0;
+        int unresolved = 0;
+        for (User farmer : userRepository.findAllFarmers()) {
+            if (add(farmer.getId(), farmer.getZipCode(), farmer.getCity())) {
+                indexed++;
+            } else {
+                unresolved++;
+            }
+        }
+        logger.info("Indexed {} farm locations ({} without a known postcode or town)", indexed, unresolved);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        if (event.isFarmer()) {
+            add(event.getUserId(), event.getZipCode(), event.getCity());
+        }
+    }
+
+    private boolean add(Long farmerId, String zipCode, String city) {
+        return geocoder.locate(zipCode, city).map(point -> {
+            FarmLocation farm = new FarmLocation(farmerId, point);
+            cells.compute(cellKey(row(point.latitude()), column(point.longitude())), (key, existing) -> {
+                if (existing == null) {
+                    return new FarmLocation[] {farm};
+                }
+                FarmLocation[] grown = Arrays.copyOf(existing, existing.length + 1);
+                grown[existing.length] = farm;
+                return grown;
+            });
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * Farms within radiusKm of the origin, nearest first, at most maxResults of them.
+     */
+    public List<NearbyFarm> within(GeoPoint origin, double radiusKm, int maxResults) {
+        double latitudeSpan = radiusKm / KM_PER_DEGREE_LATITUDE;
+        // Longitude degrees shrink towards the poles; widen the box accordingly
+        double cosLatitude = Math.max(0.01, Math.cos(Math.toRadians(Math.min(89.0,
+                Math.abs(origin.latitude()) + latitudeSpan))));
+        double longitudeSpan = Math.min(180.0, latitudeSpan / cosLatitude);
+
+        int firstRow = row(origin.latitude() - latitudeSpan);
+        int lastRow = row(origin.latitude() + latitudeSpan);
+        int firstColumn = column(origin.longitude() - longitudeSpan);
+        int lastColumn = column(origin.longitude() + longitudeSpan);
+
+        List<NearbyFarm> found = new ArrayList<>();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                FarmLocation[] farms = cells.get(cellKey(row, column));
+                if (farms == null) {
+                    continue;
+                }
+                for (FarmLocation farm : farms) {
+                    double distance = origin.distanceKm(farm.location());
+                    if (distance <= radiusKm) {
+                        found.add(new NearbyFarm(farm.farmerId(), distance));
+                    }
+                }
+            }
+        }
+        found.sort(Comparator.comparingDouble(NearbyFarm::distanceKm));
+        return found.size() > maxResults ? new ArrayList<>(found.subList(0, maxResults)) : found;
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+}
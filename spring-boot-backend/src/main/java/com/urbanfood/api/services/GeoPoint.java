@@ -0,0 +1,24 @@
+package com.urbanfood.api.services;
+
+/**
+ * A WGS84 coordinate in degrees.
+ */
+public record GeoPoint(double latitude, double longitude) {
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    public GeoPoint {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
+    }
+
+    /** Great-circle (haversine) distance in kilometres. */
+    public double distanceKm(GeoPoint other) {
+        double dLat = Math.toRadians(other.latitude - latitude);
+        double dLon = Math.toRadians(other.longitude - longitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(other.latitude))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,97 @@
+package com.urbanfood.api.services;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int-keyed accumulator of units, revenue and row counts. Kept free of
+ * boxing so the column scans stay allocation-free per row.
+ */
+final class GroupAccumulator {
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private long[] units;
+    private long[] revenue;
+    private long[] rows;
+    private int size;
+    private int mask;
+
+    GroupAccumulator(int expectedGroups) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedGroups * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        units = new long[capacity];
+        revenue = new long[capacity];
+        rows = new long[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    void add(int key, long unitCount, long revenueMinor, long rowCount) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                if (size * 4 >= keys.length * 3) {
+                    grow();
+                    add(key, unitCount, revenueMinor, rowCount);
+                    return;
+                }
+                keys[slot] = key;
+                size++;
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        units[slot] += unitCount;
+        revenue[slot] += revenueMinor;
+        rows[slot] += rowCount;
+    }
+
+    GroupAccumulator merge(GroupAccumulator other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.keys[slot] != EMPTY) {
+                add(other.keys[slot], other.units[slot], other.revenue[slot], other.rows[slot]);
+            }
+        }
+        return this;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(GroupConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot], units[slot], revenue[slot], rows[slot]);
+            }
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldUnits = units;
+        long[] oldRevenue = revenue;
+        long[] oldRows = rows;
+        allocate(oldKeys.length << 1);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                add(oldKeys[slot], oldUnits[slot], oldRevenue[slot], oldRows[slot]);
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @FunctionalInterface
+    interface GroupConsumer {
+        void accept(int key, long units, long revenueMinor, long rows);
+    }
+}
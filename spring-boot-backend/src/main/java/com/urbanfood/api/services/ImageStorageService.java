@@ -0,0 +1,413 @@
+package com.urbanfood.api.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed image store on local disk. An upload's SHA-256 is computed by reading
+ * the container's temporary file through a fixed-size buffer; the file is then moved to a
+ * path derived from the hash, so identical images are stored once, a duplicate is never
+ * written at all, and a stored file never changes. Thumbnails are rendered on a small
+ * bounded pool; when it is saturated the thumbnail is simply rendered later, the first
+ * time it is requested.
+ */
+@Service
+public class ImageStorageService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageStorageService.class);
+
+    // Enough to recognise every supported format
+    private static final int HEADER_BYTES = 12;
+
+    public enum Format {
+        JPEG("jpg", "image/jpeg", true),
+        PNG("png", "image/png", true),
+        GIF("gif", "image/gif", true),
+        // ImageIO has no WebP reader, so WebP images are served at their original size only
+        WEBP("webp", "image/webp", false);
+
+        private final String extension;
+        private final String contentType;
+        private final boolean resizable;
+
+        Format(String extension, String contentType, boolean resizable) {
+            this.extension = extension;
+            this.contentType = contentType;
+            this.resizable = resizable;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static Format fromExtension(String extension) {
+            for (Format format : values()) {
+                if (format.extension.equals(extension)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    public record StoredImage(String hash, Format format, long size, boolean duplicate) {
+    }
+
+    /** A file ready to be served; {@code exact} is false when a thumbnail was asked for but is not ready yet. */
+    public record ImageFile(Path path, Format format, long size, String etag, boolean exact) {
+    }
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${app.images.thumbnail-sizes:160,480}")
+    private int[] thumbnailSizes;
+
+    @Value("${app.images.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${app.images.copy-buffer-bytes:65536}")
+    private int copyBufferBytes;
+
+    @Value("${app.images.thumbnail-threads:2}")
+    private int thumbnailThreads;
+
+    @Value("${app.images.thumbnail-queue-capacity:200}")
+    private int thumbnailQueueCapacity;
+
+    private Path originals;
+    private Path thumbnails;
+    private Path incoming;
+    private ExecutorService thumbnailExecutor;
+
+    private final Set<String> pendingThumbnails = ConcurrentHashMap.newKeySet();
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong thumbnailsRendered = new AtomicLong();
+    private final AtomicLong thumbnailsDeferred = new AtomicLong();
+    private final AtomicLong thumbnailsFailed = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        originals = root.resolve("originals");
+        thumbnails = root.resolve("thumbnails");
+        incoming = root.resolve("incoming");
+        try {
+            Files.createDirectories(originals);
+            Files.createDirectories(thumbnails);
+            Files.createDirectories(incoming);
+        } catch (IOException e) {
+            logger.warn("Image store {} is not writable, uploads will fail: {}", root, e.getMessage());
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        thumbnailExecutor = new ThreadPoolExecutor(thumbnailThreads, thumbnailThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(thumbnailQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-thumbnail-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        thumbnailExecutor.shutdownNow();
+    }
+
+    public boolean isThumbnailSize(int size) {
+        return Arrays.stream(thumbnailSizes).anyMatch(candidate -> candidate == size);
+    }
+
+    /**
+     * Stores an uploaded image. The upload is read once to hash it, with only the buffer in
+     * memory, and then handed over with {@link MultipartFile#transferTo(java.io.File)},
+     * which renames the container's temporary file when it is on the same file system.
+     * Throws IllegalArgumentException when the content is not a supported image; the
+     * declared content type and file name are ignored.
+     */
+    public StoredImage store(MultipartFile file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(copyBufferBytes);
+        try (ReadableByteChannel source = Channels.newChannel(file.getInputStream())) {
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                if (header.hasRemaining()) {
+                    ByteBuffer start = buffer.duplicate();
+                    start.limit(start.position() + Math.min(start.remaining(), header.remaining()));
+                    header.put(start);
+                }
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+
+        Format format = sniff(Arrays.copyOf(header.array(), header.position()));
+        if (format == null) {
+            throw new IllegalArgumentException("Unsupported image format, expected JPEG, PNG, GIF or WebP");
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        Path target = originalPath(hash, format);
+        // Identical content was checked when it was first stored
+        boolean duplicate = Files.exists(target);
+        if (!duplicate) {
+            // Must not exist yet: the container moves its file here rather than copying
+            Path temp = incoming.resolve("upload-" + UUID.randomUUID() + ".part");
+            try {
+                file.transferTo(temp.toFile());
+                if (format.resizable) {
+                    checkDimensions(temp);
+                }
+                Files.createDirectories(target.getParent());
+                move(temp, target);
+                stored.incrementAndGet();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } else {
+            deduplicated.incrementAndGet();
+        }
+
+        if (format.resizable) {
+            for (int thumbnailSize : thumbnailSizes) {
+                scheduleThumbnail(hash, format, thumbnailSize);
+            }
+        }
+        return new StoredImage(hash, format, file.getSize(), duplicate);
+    }
+
+    /**
+     * Finds the file to serve for an image, or a thumbnail of it when {@code size} is set.
+     * A thumbnail that is not rendered yet is queued and the original is returned instead.
+     */
+    public ImageFile find(String hash, Format format, Integer size) throws IOException {
+        Path original = originalPath(hash, format);
+        if (!Files.isRegularFile(original)) {
+            return null;
+        }
+        if (size != null && format.resizable) {
+            Format thumbnailFormat = thumbnailFormat(format);
+            Path thumbnail = thumbnailPath(hash, thumbnailFormat, size);
+            if (Files.isRegularFile(thumbnail)) {
+                return new ImageFile(thumbnail, thumbnailFormat, Files.size(thumbnail), hash + "-" + size, true);
+            }
+            scheduleThumbnail(hash, format, size);
+            return new ImageFile(original, format, Files.size(original), hash, false);
+        }
+        return new ImageFile(original, format, Files.size(original), hash, true);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("stored", stored.get());
+        stats.put("deduplicated", deduplicated.get());
+        stats.put("thumbnailsRendered", thumbnailsRendered.get());
+        stats.put("thumbnailsPending", pendingThumbnails.size());
+        stats.put("thumbnailsDeferred", thumbnailsDeferred.get());
+        stats.put("thumbnailsFailed", thumbnailsFailed.get());
+        return stats;
+    }
+
+    private void scheduleThumbnail(String hash, Format format, int size) {
+        String key = hash + "/" + size;
+        if (!pendingThumbnails.add(key)) {
+            return;
+        }
+        try {
+            thumbnailExecutor.execute(() -> {
+                try {
+                    renderThumbnail(hash, format, size);
+                } catch (IOException | RuntimeException e) {
+                    thumbnailsFailed.incrementAndGet();
+                    logger.warn("Rendering the {}px thumbnail of image {} failed: {}", size, hash, e.getMessage());
+                } finally {
+                    pendingThumbnails.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingThumbnails.remove(key);
+            thumbnailsDeferred.incrementAndGet();
+        }
+    }
+
+    private void renderThumbnail(String hash, Format format, int size) throws IOException {
+        Format thumbnailFormat = thumbnailFormat(format);
+        Path target = thumbnailPath(hash, thumbnailFormat, size);
+        if (Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(incoming, "thumbnail-", ".part");
+        try {
+            BufferedImage source = readForSize(originalPath(hash, format), size);
+            if (source.getWidth() <= size && source.getHeight() <= size && format == thumbnailFormat) {
+                // Already small enough; the original bytes are the best thumbnail
+                Files.copy(originalPath(hash, format), temp, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                ImageIO.write(scale(source, size, thumbnailFormat == Format.PNG), thumbnailFormat.extension,
+                        temp.toFile());
+            }
+            move(temp, target);
+            thumbnailsRendered.incrementAndGet();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Reads only the header, so an oversized image is refused before anything decodes it
+    private void checkDimensions(Path path) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            ImageReader reader = reader(input);
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new IllegalArgumentException("Image dimensions exceed the limit of " + maxPixels + " pixels");
+                }
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Image content is corrupt");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Decodes an image with source subsampling, so a large photo is never fully expanded in
+     * memory just to produce a small thumbnail.
+     */
+    private BufferedImage readForSize(Path path, int size) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            ImageReader reader = reader(input);
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // Keep twice the target resolution so the final scaling step can smooth
+                int subsampling = Math.max(1, Math.max(width, height) / (size * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageReader reader(ImageInputStream input) {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new IllegalArgumentException("Image content is corrupt");
+        }
+        return readers.next();
+    }
+
+    private static BufferedImage scale(BufferedImage source, int size, boolean alpha) {
+        double ratio = Math.min(1.0, Math.min((double) size / source.getWidth(), (double) size / source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage scaled = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    // JPEG stays JPEG; PNG and GIF may have transparency, and ImageIO writes GIF poorly
+    private static Format thumbnailFormat(Format format) {
+        return format == Format.JPEG ? Format.JPEG : Format.PNG;
+    }
+
+    private Path originalPath(String hash, Format format) {
+        return originals.resolve(hash.substring(0, 2)).resolve(hash + "." + format.extension);
+    }
+
+    private Path thumbnailPath(String hash, Format format, int size) {
+        return thumbnails.resolve(String.valueOf(size)).resolve(hash.substring(0, 2))
+                .resolve(hash + "." + format.extension);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            // Readers never see a partly written file; a concurrent identical upload just replaces it
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Format sniff(byte[] header) {
+        int read = header.length;
+        if (read >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return Format.JPEG;
+        }
+        if (read >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+            return Format.PNG;
+        }
+        if (read >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8') {
+            return Format.GIF;
+        }
+        if (read >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return Format.WEBP;
+        }
+        return null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.urbanfood.api.services;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int-to-int counter map with linear probing. Not thread-safe.
+ */
+final class IntIntHashMap {
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    IntIntHashMap(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    int addTo(int key, int delta) {
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) {
+            if (size * 4 >= keys.length * 3) {
+                grow();
+                return addTo(key, delta);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        return values[slot] += delta;
+    }
+
+    int get(int key) {
+        int slot = slot(key);
+        return keys[slot] == EMPTY ? 0 : values[slot];
+    }
+
+    void remove(int key) {
+        int gap = slot(key);
+        if (keys[gap] == EMPTY) {
+            return;
+        }
+        // Shift later entries of the probe run back so lookups never stop at the hole
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = 0;
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(IntIntConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    private int slot(int key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                int target = slot(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+                size++;
+            }
+        }
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @FunctionalInterface
+    interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+}
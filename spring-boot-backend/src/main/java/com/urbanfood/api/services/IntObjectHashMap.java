@@ -0,0 +1,104 @@
+package com.urbanfood.api.services;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Open-addressing int-keyed map with linear probing, avoiding boxed keys. Not thread-safe.
+ */
+final class IntObjectHashMap<V> {
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    IntObjectHashMap(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int slot = slot(key);
+        return keys[slot] == EMPTY ? null : (V) values[slot];
+    }
+
+    void put(int key, V value) {
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) {
+            if (size * 4 >= keys.length * 3) {
+                grow();
+                put(key, value);
+                return;
+            }
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        int gap = slot(key);
+        if (keys[gap] == EMPTY) {
+            return null;
+        }
+        V removed = (V) values[gap];
+        // Shift later entries of the probe run back so lookups never stop at the hole
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = IntIntHashMap.mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEachKey(IntConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot]);
+            }
+        }
+    }
+
+    private int slot(int key) {
+        int slot = IntIntHashMap.mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                int target = slot(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+                size++;
+            }
+        }
+    }
+}
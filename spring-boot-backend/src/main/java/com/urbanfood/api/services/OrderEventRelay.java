@@ -0,0 +1,51 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.events.OrderPersistedEvent;
+import com.urbanfood.api.events.OrderPlacedEvent;
+import com.urbanfood.api.models.oracle.Order;
+import com.urbanfood.api.repositories.oracle.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Turns the in-transaction OrderPersistedEvent into an OrderPlacedEvent once the order
+ * has committed, loading the order lines once for every downstream listener.
+ */
+@Service
+public class OrderEventRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventRelay.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate readTransaction;
+
+    public OrderEventRelay(PlatformTransactionManager transactionManager) {
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Deliberately not read-only: the order was just committed and a replica may not have it yet
+    }
+
+    @TransactionalEventListener
+    public void onOrderPersisted(OrderPersistedEvent event) {
+        OrderPlacedEvent placed = readTransaction.execute(status -> {
+            Order order = orderRepository.findByIdWithItemsAndProducts(event.getOrderId());
+            return order != null ? OrderPlacedEvent.from(this, order) : null;
+        });
+        if (placed == null) {
+            logger.warn("Order {} committed but could not be reloaded", event.getOrderId());
+            return;
+        }
+        eventPublisher.publishEvent(placed);
+    }
+}
@@ -0,0 +1,381 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.OrderItemAggregateDto;
+import com.urbanfood.api.dto.OrderItemAggregateResponse;
+import com.urbanfood.api.events.OrderPlacedEvent;
+import com.urbanfood.api.models.oracle.OrderItem;
+import com.urbanfood.api.repositories.oracle.OrderItemRepository;
+import com.urbanfood.api.repositories.oracle.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * In-memory columnar copy of order items for ad-hoc admin aggregations. Rows live in
+ * fixed-size segments of primitive arrays; a query scans every segment in parallel
+ * with a tight filter loop and merges per-segment group accumulators.
+ *
+ * There is a single writer (the loader, then new-order events) guarded by this object's
+ * monitor. Readers take the volatile segment array and each segment's volatile row count,
+ * so they only ever see fully written rows.
+ */
+@Service
+public class OrderItemColumnStore {
+    private static final Logger logger = LoggerFactory.getLogger(OrderItemColumnStore.class);
+
+    static final int SEGMENT_SIZE = 1 << 16;
+    private static final int NONE = -1;
+    // Ids are stored as ints; a larger id is kept under this key rather than failing the row
+    private static final int OUT_OF_RANGE = -2;
+
+    public enum GroupBy {
+        NONE, CATEGORY, FARMER, PRODUCT, ORGANIC, MONTH, DAY
+    }
+
+    /** Row filter; null fields match everything. */
+    public record Filter(LocalDate from, LocalDate to, Long categoryId, Long farmerId, Boolean organic) {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Value("${app.columnar.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.analytics.backfill-chunk-size:500}")
+    private int chunkSize;
+
+    private final ForkJoinPool scanPool;
+
+    private volatile Segment[] segments = new Segment[0];
+    private volatile boolean loaded;
+
+    // Written only under the monitor
+    private List<OrderPlacedEvent> pendingDuringLoad = new ArrayList<>();
+
+    public OrderItemColumnStore(@Value("${app.columnar.parallelism:0}") int parallelism) {
+        this.scanPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::loadFromDatabase, "order-item-column-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void loadFromDatabase() {
+        long started = System.currentTimeMillis();
+        try {
+            List<Segment> built = new ArrayList<>();
+            built.add(new Segment());
+            // Ids are not assigned in commit order, so only these are known to be in the store
+            Set<Long> scannedOrderIds = new HashSet<>();
+            long undated = 0;
+            long lastOrderId = 0L;
+            while (true) {
+                List<Long> orderIds = orderRepository.findIdsAfter(lastOrderId, PageRequest.of(0, chunkSize));
+                if (orderIds.isEmpty()) {
+                    break;
+                }
+                long chunkEnd = orderIds.get(orderIds.size() - 1);
+                for (OrderItem item : orderItemRepository.findByOrderIdRange(lastOrderId, chunkEnd)) {
+                    scannedOrderIds.add(item.getOrder().getId());
+                    LocalDateTime orderDate = item.getOrder().getOrderDate();
+                    if (orderDate == null) {
+                        undated++;
+                        continue;
+                    }
+                    Segment tail = built.get(built.size() - 1);
+                    if (tail.isFull()) {
+                        tail = new Segment();
+                        built.add(tail);
+                    }
+                    tail.append(toInt(item.getProduct().getId()), toInt(item.getProduct().getFarmerId()),
+                            toInt(item.getProduct().getCategoryId()), Boolean.TRUE.equals(item.getProduct().getOrganic()),
+                            item.getQuantity(), toMinorUnits(item.getUnitPrice()),
+                            orderDate.toLocalDate());
+                }
+                lastOrderId = chunkEnd;
+            }
+            if (undated > 0) {
+                logger.warn("{} order items have no order date and are left out of the column store", undated);
+            }
+            install(built, scannedOrderIds);
+            logger.info("Loaded {} order items into the column store in {} ms",
+                    rowCount(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("Failed to load the order item column store", e);
+            abandonLoad();
+        }
+    }
+
+    private synchronized void abandonLoad() {
+        // Without a base load, appended orders alone would report misleading totals
+        pendingDuringLoad = null;
+    }
+
+    synchronized void install(List<Segment> built, Set<Long> scannedOrderIds) {
+        segments = built.toArray(new Segment[0]);
+        loaded = true;
+        // Orders placed while loading, unless the scan already read them
+        for (OrderPlacedEvent event : pendingDuringLoad) {
+            if (!scannedOrderIds.contains(event.getOrderId())) {
+                appendOrder(event);
+            }
+        }
+        pendingDuringLoad = null;
+    }
+
+    @EventListener
+    public synchronized void onOrderPlaced(OrderPlacedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!loaded) {
+            if (pendingDuringLoad != null) {
+                pendingDuringLoad.add(event);
+            }
+            return;
+        }
+        appendOrder(event);
+    }
+
+    private void appendOrder(OrderPlacedEvent event) {
+        LocalDate date = event.getOrderDate().toLocalDate();
+        for (OrderPlacedEvent.Line line : event.getLines()) {
+            Segment[] current = segments;
+            Segment tail = current.length > 0 ? current[current.length - 1] : null;
+            if (tail == null || tail.isFull()) {
+                tail = new Segment();
+                Segment[] grown = Arrays.copyOf(current, current.length + 1);
+                grown[current.length] = tail;
+                segments = grown;
+            }
+            tail.append(toInt(line.productId()), toInt(line.farmerId()), toInt(line.categoryId()), line.organic(),
+                    line.quantity(), toMinorUnits(line.unitPrice()), date);
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public long rowCount() {
+        long rows = 0;
+        for (Segment segment : segments) {
+            rows += segment.size;
+        }
+        return rows;
+    }
+
+    public OrderItemAggregateResponse aggregate(Filter filter, GroupBy groupBy, int limit) {
+        long started = System.nanoTime();
+        Segment[] snapshot = segments;
+        int fromDay = filter.from() != null ? (int) filter.from().toEpochDay() : Integer.MIN_VALUE;
+        int toDay = filter.to() != null ? (int) filter.to().toEpochDay() : Integer.MAX_VALUE;
+        int categoryId = filter.categoryId() != null ? toInt(filter.categoryId()) : Integer.MIN_VALUE;
+        int farmerId = filter.farmerId() != null ? toInt(filter.farmerId()) : Integer.MIN_VALUE;
+        int organic = filter.organic() == null ? NONE : (filter.organic() ? 1 : 0);
+        // No stored row can carry an id outside the int range, so such a filter matches nothing
+        boolean matchesNothing = categoryId == OUT_OF_RANGE || farmerId == OUT_OF_RANGE;
+
+        GroupAccumulator total;
+        try {
+            total = matchesNothing ? new GroupAccumulator(1) : scanPool.submit(() -> Arrays.stream(snapshot).parallel()
+                    .map(segment -> segment.scan(fromDay, toDay, categoryId, farmerId, organic, groupBy))
+                    .reduce(GroupAccumulator::merge)
+                    .orElseGet(() -> new GroupAccumulator(1))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Aggregation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Aggregation failed", e.getCause());
+        }
+
+        List<OrderItemAggregateDto> groups = new ArrayList<>(total.size());
+        long[] matched = new long[1];
+        total.forEach((key, units, revenueMinor, rows) -> {
+            matched[0] += rows;
+            groups.add(new OrderItemAggregateDto(label(groupBy, key), units,
+                    BigDecimal.valueOf(revenueMinor, 2), rows));
+        });
+        groups.sort(Comparator.comparing(OrderItemAggregateDto::getRevenue).reversed());
+
+        long scanned = 0;
+        for (Segment segment : snapshot) {
+            scanned += segment.size;
+        }
+        OrderItemAggregateResponse response = new OrderItemAggregateResponse();
+        response.setGroupBy(groupBy.name());
+        response.setRowsScanned(scanned);
+        response.setRowsMatched(matched[0]);
+        response.setElapsedMicros((System.nanoTime() - started) / 1_000);
+        response.setGroups(groups.size() > limit ? new ArrayList<>(groups.subList(0, limit)) : groups);
+        return response;
+    }
+
+    private static String label(GroupBy groupBy, int key) {
+        switch (groupBy) {
+            case NONE:
+                return "total";
+            case ORGANIC:
+                return key == 1 ? "organic" : "non-organic";
+            case MONTH:
+                return YearMonth.of(key / 12, key % 12 + 1).toString();
+            case DAY:
+                return LocalDate.ofEpochDay(key).toString();
+            default:
+                if (key == NONE) {
+                    return "none";
+                }
+                return key == OUT_OF_RANGE ? "out-of-range" : Integer.toString(key);
+        }
+    }
+
+    private static int toInt(Long id) {
+        if (id == null) {
+            return NONE;
+        }
+        return id >= 0 && id <= Integer.MAX_VALUE ? id.intValue() : OUT_OF_RANGE;
+    }
+
+    static long toMinorUnits(BigDecimal price) {
+        return price != null ? price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0L;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanPool.shutdownNow();
+    }
+
+    static final class Segment {
+        private final int[] productIds = new int[SEGMENT_SIZE];
+        private final int[] farmerIds = new int[SEGMENT_SIZE];
+        private final int[] categoryIds = new int[SEGMENT_SIZE];
+        private final int[] quantities = new int[SEGMENT_SIZE];
+        private final long[] unitPrices = new long[SEGMENT_SIZE];
+        private final int[] epochDays = new int[SEGMENT_SIZE];
+        // Year * 12 + zero-based month, precomputed so monthly grouping is a plain column read
+        private final int[] epochMonths = new int[SEGMENT_SIZE];
+        private final byte[] organic = new byte[SEGMENT_SIZE];
+
+        private volatile int size;
+
+        boolean isFull() {
+            return size == SEGMENT_SIZE;
+        }
+
+        void append(int productId, int farmerId, int categoryId, boolean isOrganic, int quantity,
+                    long unitPriceMinor, LocalDate date) {
+            int row = size;
+            productIds[row] = productId;
+            farmerIds[row] = farmerId;
+            categoryIds[row] = categoryId;
+            organic[row] = (byte) (isOrganic ? 1 : 0);
+            quantities[row] = quantity;
+            unitPrices[row] = unitPriceMinor;
+            epochDays[row] = (int) date.toEpochDay();
+            epochMonths[row] = date.getYear() * 12 + date.getMonthValue() - 1;
+            // Volatile write publishes the row to readers
+            size = row + 1;
+        }
+
+        GroupAccumulator scan(int fromDay, int toDay, int categoryId, int farmerId, int organicFlag, GroupBy groupBy) {
+            int rows = size;
+            int[] keys = keyColumn(groupBy);
+            GroupAccumulator accumulator = new GroupAccumulator(keys == null ? 2 : 1024);
+            boolean anyCategory = categoryId == Integer.MIN_VALUE;
+            boolean anyFarmer = farmerId == Integer.MIN_VALUE;
+            boolean anyOrganic = organicFlag == NONE;
+
+            if (keys == null) {
+                // NONE and ORGANIC: at most two groups, so keep them in locals
+                long units0 = 0, revenue0 = 0, rows0 = 0, units1 = 0, revenue1 = 0, rows1 = 0;
+                boolean byOrganic = groupBy == GroupBy.ORGANIC;
+                for (int i = 0; i < rows; i++) {
+                    int day = epochDays[i];
+                    if (day < fromDay || day > toDay
+                            || (!anyCategory && categoryIds[i] != categoryId)
+                            || (!anyFarmer && farmerIds[i] != farmerId)
+                            || (!anyOrganic && organic[i] != organicFlag)) {
+                        continue;
+                    }
+                    long quantity = quantities[i];
+                    if (byOrganic && organic[i] == 1) {
+                        units1 += quantity;
+                        revenue1 += quantity * unitPrices[i];
+                        rows1++;
+                    } else {
+                        units0 += quantity;
+                        revenue0 += quantity * unitPrices[i];
+                        rows0++;
+                    }
+                }
+                if (rows0 > 0) {
+                    accumulator.add(0, units0, revenue0, rows0);
+                }
+                if (rows1 > 0) {
+                    accumulator.add(1, units1, revenue1, rows1);
+                }
+                return accumulator;
+            }
+
+            for (int i = 0; i < rows; i++) {
+                int day = epochDays[i];
+                if (day < fromDay || day > toDay
+                        || (!anyCategory && categoryIds[i] != categoryId)
+                        || (!anyFarmer && farmerIds[i] != farmerId)
+                        || (!anyOrganic && organic[i] != organicFlag)) {
+                    continue;
+                }
+                long quantity = quantities[i];
+                accumulator.add(keys[i], quantity, quantity * unitPrices[i], 1);
+            }
+            return accumulator;
+        }
+
+        private int[] keyColumn(GroupBy groupBy) {
+            switch (groupBy) {
+                case CATEGORY:
+                    return categoryIds;
+                case FARMER:
+                    return farmerIds;
+                case PRODUCT:
+                    return productIds;
+                case MONTH:
+                    return epochMonths;
+                case DAY:
+                    return epochDays;
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.models.mongo.Review;
+import com.urbanfood.api.models.oracle.OutboxEvent;
+import com.urbanfood.api.repositories.oracle.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox into MongoDB. Each batch is claimed, applied as one bulk operation and
+ * deleted inside a single Oracle transaction, so a crash or failed commit only means the
+ * batch is delivered again; every operation is idempotent, which makes that harmless.
+ * A batch that cannot be applied is pushed back with exponential backoff.
+ */
+@Service
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.outbox.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${app.outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    private final TransactionTemplate transaction;
+    private final Counter relayed;
+    private final Counter retried;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSizes;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.relayed = Counter.builder("outbox.events.relayed")
+                .description("Outbox events applied to MongoDB")
+                .register(meterRegistry);
+        this.retried = Counter.builder("outbox.events.retried")
+                .description("Outbox events pushed back after a failed attempt")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time to claim, apply and delete one batch")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("outbox.relay.batch.size")
+                .register(meterRegistry);
+        meterRegistry.gauge("outbox.relay.lag", lagMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+        // Keep going while batches come back full, within a bound so one instance cannot spin forever
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer claimed = batchTimer.record(() -> transaction.execute(status -> relayBatch()));
+            if (claimed == null || claimed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxEventRepository.claim(now, batchSize);
+        if (events.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        batchSizes.record(events.size());
+        lagMillis.set(Duration.between(events.get(0).getCreatedAt(), now).toMillis());
+
+        List<Long> applied = new ArrayList<>(events.size());
+        List<OutboxEvent> unknown = new ArrayList<>();
+        try {
+            apply(events, applied, unknown);
+        } catch (RuntimeException e) {
+            backOff(events, now, e.getMessage());
+            return events.size();
+        }
+
+        outboxEventRepository.deleteByIdIn(applied);
+        relayed.increment(applied.size());
+        if (!unknown.isEmpty()) {
+            backOff(unknown, now, "Unknown event type");
+        }
+        return events.size();
+    }
+
+    private void apply(List<OutboxEvent> events, List<Long> applied, List<OutboxEvent> unknown) {
+        Set<Long> deletedProducts = new LinkedHashSet<>();
+        for (OutboxEvent event : events) {
+            if (event.getEventType() == null) {
+                unknown.add(event);
+                continue;
+            }
+            switch (event.getEventType()) {
+                case PRODUCT_DELETED -> deletedProducts.add(event.getAggregateId());
+            }
+            applied.add(event.getId());
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Review.class);
+        int operations = 0;
+        if (!deletedProducts.isEmpty()) {
+            bulk.remove(new Query(Criteria.where("productId").in(deletedProducts)));
+            operations++;
+        }
+        if (operations > 0) {
+            bulk.execute();
+        }
+    }
+
+    private void backOff(List<OutboxEvent> events, LocalDateTime now, String error) {
+        int attempts = 0;
+        List<Long> ids = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            attempts = Math.max(attempts, event.getAttempts());
+            ids.add(event.getId());
+        }
+        long delayMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts, 20));
+        if (error != null && error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        outboxEventRepository.reschedule(ids, now.plusNanos(delayMs * 1_000_000), error);
+        retried.increment(events.size());
+        logger.warn("Relaying {} outbox events failed (attempt {}), retrying in {} ms: {}",
+                events.size(), attempts + 1, delayMs, error);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", outboxEventRepository.count());
+        stats.put("relayed", (long) relayed.count());
+        stats.put("retried", (long) retried.count());
+        stats.put("batches", batchTimer.count());
+        stats.put("meanBatchMillis", batchTimer.mean(TimeUnit.MILLISECONDS));
+        stats.put("lagMillis", lagMillis.get());
+        return stats;
+    }
+}
@@ -0,0 +1,25 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.models.oracle.OutboxEvent;
+import com.urbanfood.api.repositories.oracle.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records MongoDB side effects of Oracle writes. Must be called inside the writing
+ * transaction, so the event exists if and only if the change committed.
+ */
+@Service
+public class OutboxService {
+    public static final String PRODUCT = "PRODUCT";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productDeleted(Long productId) {
+        outboxEventRepository.save(new OutboxEvent(PRODUCT, productId, OutboxEvent.EventType.PRODUCT_DELETED, null));
+    }
+}
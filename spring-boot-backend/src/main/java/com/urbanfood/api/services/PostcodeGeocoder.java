@@ -0,0 +1,77 @@
+package com.urbanfood.api.services;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline geocoder backed by the bundled postcode table. Resolves a postcode first and
+ * falls back to the town name, so addresses are never sent to an external service.
+ */
+@Component
+public class PostcodeGeocoder {
+    private static final Logger logger = LoggerFactory.getLogger(PostcodeGeocoder.class);
+
+    @Value("${app.geo.postcodes:classpath:geo/lk-postcodes.csv}")
+    private Resource postcodes;
+
+    private final Map<String, GeoPoint> byPostcode = new HashMap<>();
+    private final Map<String, GeoPoint> byPlace = new HashMap<>();
+
+    @PostConstruct
+    public void load() throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(postcodes.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                if (columns.length != 4) {
+                    logger.warn("Skipping malformed postcode row: {}", line);
+                    continue;
+                }
+                GeoPoint point = new GeoPoint(Double.parseDouble(columns[2].trim()), Double.parseDouble(columns[3].trim()));
+                byPostcode.put(normalizePostcode(columns[0]), point);
+                byPlace.putIfAbsent(normalizePlace(columns[1]), point);
+            }
+        }
+        logger.info("Loaded {} postcodes for geocoding", byPostcode.size());
+    }
+
+    public Optional<GeoPoint> locate(String zipCode, String city) {
+        if (zipCode != null) {
+            GeoPoint point = byPostcode.get(normalizePostcode(zipCode));
+            if (point != null) {
+                return Optional.of(point);
+            }
+        }
+        if (city != null) {
+            return Optional.ofNullable(byPlace.get(normalizePlace(city)));
+        }
+        return Optional.empty();
+    }
+
+    private static String normalizePostcode(String zipCode) {
+        String digits = zipCode.replaceAll("\\D", "");
+        // Colombo codes are often written without their leading zeros ("100" for 00100)
+        return digits.length() >= 5 ? digits : "0".repeat(5 - digits.length()) + digits;
+    }
+
+    private static String normalizePlace(String place) {
+        return place.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ").trim();
+    }
+}
@@ -0,0 +1,144 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.ProductBulkUpdateRequest;
+import com.urbanfood.api.dto.ProductBulkUpdateResponse;
+import com.urbanfood.api.dto.ProductPatch;
+import com.urbanfood.api.dto.ProductUpdateConflictDto;
+import com.urbanfood.api.dto.ProductVersionDto;
+import com.urbanfood.api.events.CatalogChangedEvent;
+import com.urbanfood.api.repositories.oracle.ProductRepository;
+import com.urbanfood.api.repositories.oracle.ProductRepositoryCustom.PatchRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies partial price, stock and featured updates to many products in one transaction.
+ * The rows are locked and their versions checked up front, so every conflict is reported
+ * with the current version instead of one update silently overwriting another; the rest
+ * are written with JDBC batches rather than loading and merging each entity.
+ */
+@Service
+public class ProductBulkUpdateService {
+    // Keeps the reload's IN list under Oracle's 1000-element limit
+    private static final int RELOAD_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.products.bulk.max-updates:5000}")
+    private int maxUpdates;
+
+    @Value("${app.products.bulk.batch-size:500}")
+    private int batchSize;
+
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate reloadTransaction;
+
+    public ProductBulkUpdateService(PlatformTransactionManager transactionManager) {
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.reloadTransaction = new TransactionTemplate(transactionManager);
+        // Deliberately not read-only: the rows were just committed and a replica may not have them yet
+    }
+
+    /**
+     * @throws IllegalArgumentException if the request is too large, names a product twice
+     *                                  or contains a patch that changes nothing
+     */
+    public ProductBulkUpdateResponse apply(ProductBulkUpdateRequest request) {
+        List<ProductPatch> patches = new ArrayList<>(request.getUpdates());
+        if (patches.size() > maxUpdates) {
+            throw new IllegalArgumentException("At most " + maxUpdates + " products can be updated per request");
+        }
+        Set<Long> ids = new HashSet<>();
+        for (ProductPatch patch : patches) {
+            if (!ids.add(patch.getId())) {
+                throw new IllegalArgumentException("Product " + patch.getId() + " appears more than once");
+            }
+            if (patch.getPrice() == null && patch.getStock() == null && patch.getFeatured() == null) {
+                throw new IllegalArgumentException("Update for product " + patch.getId() + " changes nothing");
+            }
+        }
+        patches.sort(Comparator.comparing(ProductPatch::getId));
+
+        ProductBulkUpdateResponse response =
+                writeTransaction.execute(status -> write(patches, ids, request.isAllOrNothing()));
+        if (!response.getUpdated().isEmpty()) {
+            refreshCaches(response.getUpdated());
+        }
+        return response;
+    }
+
+    private ProductBulkUpdateResponse write(List<ProductPatch> patches, Set<Long> ids, boolean allOrNothing) {
+        Map<Long, Long> versions = productRepository.lockVersions(ids);
+
+        List<ProductUpdateConflictDto> conflicts = new ArrayList<>();
+        List<PatchRow> rows = new ArrayList<>(patches.size());
+        for (ProductPatch patch : patches) {
+            Long current = versions.get(patch.getId());
+            if (current == null) {
+                conflicts.add(new ProductUpdateConflictDto(patch.getId(), "NOT_FOUND", patch.getVersion(), null));
+            } else if (patch.getVersion() != null && !patch.getVersion().equals(current)) {
+                conflicts.add(new ProductUpdateConflictDto(
+                        patch.getId(), "VERSION_MISMATCH", patch.getVersion(), current));
+            } else {
+                rows.add(new PatchRow(patch.getId(), current,
+                        patch.getPrice() != null ? patch.getPrice().toPlainString() : null,
+                        patch.getStock(), patch.getFeatured()));
+            }
+        }
+        if (rows.isEmpty() || (allOrNothing && !conflicts.isEmpty())) {
+            return new ProductBulkUpdateResponse(new ArrayList<>(), conflicts);
+        }
+
+        int[] counts = productRepository.applyPatches(rows, batchSize);
+        List<ProductVersionDto> updated = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            PatchRow row = rows.get(i);
+            if (counts[i] > 0) {
+                updated.add(new ProductVersionDto(row.id(), row.version() + 1));
+            } else {
+                // Cannot happen while the rows are locked, but never report a lost update as applied
+                conflicts.add(new ProductUpdateConflictDto(row.id(), "VERSION_MISMATCH", row.version(), null));
+            }
+        }
+        return new ProductBulkUpdateResponse(updated, conflicts);
+    }
+
+    /**
+     * The batch bypassed Hibernate, so the cached rows are evicted and reloaded in bulk;
+     * the per-product listeners notified afterwards then find them in the cache instead of
+     * each querying the database.
+     */
+    private void refreshCaches(List<ProductVersionDto> updated) {
+        List<Long> ids = new ArrayList<>(updated.size());
+        for (ProductVersionDto product : updated) {
+            ids.add(product.getId());
+        }
+        secondLevelCacheService.evictProducts(ids);
+        reloadTransaction.executeWithoutResult(status -> {
+            for (int from = 0; from < ids.size(); from += RELOAD_CHUNK_SIZE) {
+                productRepository.findAllById(ids.subList(from, Math.min(ids.size(), from + RELOAD_CHUNK_SIZE)));
+            }
+        });
+        for (Long id : ids) {
+            eventPublisher.publishEvent(CatalogChangedEvent.product(this, id));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.ProductBatchResponse;
+import com.urbanfood.api.dto.ProductDto;
+import com.urbanfood.api.models.mongo.ProductRatingSummary;
+import com.urbanfood.api.models.oracle.Product;
+import com.urbanfood.api.repositories.mongo.ReviewRepository;
+import com.urbanfood.api.repositories.oracle.ProductRepository;
+import com.urbanfood.api.repositories.oracle.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductDtoService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductDtoService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private FanOut fanOut;
+
+    /**
+     * Converts a list of products with one farmer query and one review aggregation,
+     * however many products there are. If the aggregation misses the deadline the
+     * products are returned without ratings.
+     */
+    public List<ProductDto> toDtos(List<Product> products) {
+        if (products.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> farmerIds = products.stream()
+                .map(Product::getFarmerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> productIds = products.stream().map(Product::getId).collect(Collectors.toSet());
+
+        // Only the Mongo aggregation is forked. The farmer query runs on this thread meanwhile,
+        // inside the caller's transaction, so a request never holds two pooled connections
+        Map<Long, String> farmNames = new HashMap<>();
+        Map<Long, ProductRatingSummary> ratings = new HashMap<>();
+        try (FanOut.Scope scope = fanOut.open()) {
+            FanOut.Subtask<List<ProductRatingSummary>> summaries =
+                    scope.fork(() -> reviewRepository.summarizeByProductIds(productIds));
+            if (!farmerIds.isEmpty()) {
+                userRepository.findAllById(farmerIds)
+                        .forEach(farmer -> farmNames.put(farmer.getId(), farmer.getFarmName()));
+            }
+            scope.join();
+
+            summaries.get().forEach(summary -> ratings.put(summary.getProductId(), summary));
+        } catch (FanOut.FanOutException e) {
+            logger.warn("Could not load ratings for {} products: {}", products.size(), e.getMessage());
+        }
+
+        List<ProductDto> dtos = new ArrayList<>(products.size());
+        for (Product product : products) {
+            ProductDto dto = copyFields(product);
+            dto.setFarmName(farmNames.get(product.getFarmerId()));
+            ProductRatingSummary rating = ratings.get(product.getId());
+            dto.setReviewCount(rating != null && rating.getReviewCount() != null ? rating.getReviewCount().intValue() : 0);
+            dto.setAverageRating(rating != null ? rating.getAverageRating() : null);
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    public ProductDto toDto(Product product) {
+        ProductDto dto = copyFields(product);
+
+        // The rating lookups (Mongo) are forked while the farm name (Oracle) is read on this
+        // thread; if they miss the deadline the product is still returned without them
+        try (FanOut.Scope scope = fanOut.open()) {
+            FanOut.Subtask<Long> reviewCount = scope.fork(() -> reviewRepository.countByProductId(product.getId()));
+            FanOut.Subtask<Double> averageRating =
+                    scope.fork(() -> reviewRepository.getAverageRatingByProductId(product.getId()));
+            if (product.getFarmerId() != null) {
+                userRepository.findById(product.getFarmerId()).ifPresent(user -> dto.setFarmName(user.getFarmName()));
+            }
+            scope.join();
+
+            dto.setReviewCount(reviewCount.get() != null ? reviewCount.get().intValue() : 0);
+            dto.setAverageRating(averageRating.get());
+        } catch (FanOut.FanOutException e) {
+            logger.warn("Could not enrich product {}: {}", product.getId(), e.getMessage());
+        }
+
+        return dto;
+    }
+
+    /**
+     * Loads the given products with a single findAllById, keeping the requested order
+     * (duplicates collapsed) and reporting ids that do not exist.
+     */
+    public ProductBatchResponse findBatch(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+
+        Map<Long, Product> found = new HashMap<>();
+        for (Product product : productRepository.findAllById(requested)) {
+            found.put(product.getId(), product);
+        }
+
+        List<Product> ordered = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Product product = found.get(id);
+            if (product != null) {
+                ordered.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductBatchResponse(toDtos(ordered), missingIds);
+    }
+
+    static ProductDto copyFields(Product product) {
+        ProductDto dto = new ProductDto();
+        dto.setId(product.getId());
+        dto.setName(product.getName());
+        dto.setDescription(product.getDescription());
+        dto.setPrice(product.getPrice() != null ? new BigDecimal(product.getPrice().toString()) : null);
+        dto.setImageUrl(product.getImageUrl());
+        dto.setCategoryId(product.getCategoryId());
+        dto.setFarmerId(product.getFarmerId());
+        dto.setUnit(product.getUnit());
+        dto.setOrganic(product.getOrganic());
+        dto.setStock(product.getStock());
+        dto.setFeatured(product.getFeatured());
+        dto.setVersion(product.getVersion());
+        return dto;
+    }
+}
@@ -0,0 +1,143 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.models.mongo.ProductRatingSummary;
+import com.urbanfood.api.models.oracle.Product;
+import com.urbanfood.api.models.oracle.User;
+import com.urbanfood.api.repositories.mongo.ReviewRepository;
+import com.urbanfood.api.repositories.oracle.ProductRepository;
+import com.urbanfood.api.repositories.oracle.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Serves sparse fieldsets of ProductDto ({@code ?fields=id,name,price}). Only the
+ * requested columns are selected and the farm name / rating lookups only run
+ * when those fields are asked for, each as a single query for the whole page.
+ */
+@Service
+public class ProductFieldSetService {
+
+    private static final Set<String> COLUMN_FIELDS = Set.of(
+            "id", "name", "description", "price", "imageUrl", "categoryId",
+            "farmerId", "unit", "organic", "stock", "featured");
+    private static final String FARM_NAME = "farmName";
+    private static final String AVERAGE_RATING = "averageRating";
+    private static final String REVIEW_COUNT = "reviewCount";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    /**
+     * Parses a comma separated field list, rejecting names that are not ProductDto fields.
+     */
+    public Set<String> parse(String fields) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!COLUMN_FIELDS.contains(name) && !FARM_NAME.equals(name)
+                    && !AVERAGE_RATING.equals(name) && !REVIEW_COUNT.equals(name)) {
+                throw new IllegalArgumentException("Unknown product field: " + name);
+            }
+            requested.add(name);
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("At least one product field must be requested");
+        }
+        return requested;
+    }
+
+    public List<Map<String, Object>> find(Set<String> fields, Specification<Product> specification) {
+        boolean wantsFarmName = fields.contains(FARM_NAME);
+        boolean wantsRatings = fields.contains(AVERAGE_RATING) || fields.contains(REVIEW_COUNT);
+
+        // Enrichment needs its key columns even if the client did not ask for them
+        Set<String> columns = new LinkedHashSet<>();
+        fields.stream().filter(COLUMN_FIELDS::contains).forEach(columns::add);
+        if (wantsFarmName) {
+            columns.add("farmerId");
+        }
+        if (wantsRatings) {
+            columns.add("id");
+        }
+
+        List<Map<String, Object>> rows = productRepository.findAttributes(columns, specification);
+
+        Map<Long, String> farmNames = wantsFarmName ? loadFarmNames(rows) : Map.of();
+        Map<Long, ProductRatingSummary> ratings = wantsRatings ? loadRatings(rows) : Map.of();
+
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> projected = new LinkedHashMap<>();
+            for (String field : fields) {
+                switch (field) {
+                    case FARM_NAME -> projected.put(field, farmNames.get((Long) row.get("farmerId")));
+                    case REVIEW_COUNT -> {
+                        ProductRatingSummary rating = ratings.get((Long) row.get("id"));
+                        projected.put(field, rating != null && rating.getReviewCount() != null
+                                ? rating.getReviewCount().intValue() : 0);
+                    }
+                    case AVERAGE_RATING -> {
+                        ProductRatingSummary rating = ratings.get((Long) row.get("id"));
+                        projected.put(field, rating != null ? rating.getAverageRating() : null);
+                    }
+                    case "price" -> {
+                        Object price = row.get(field);
+                        projected.put(field, price != null ? new BigDecimal(price.toString()) : null);
+                    }
+                    default -> projected.put(field, row.get(field));
+                }
+            }
+            result.add(projected);
+        }
+        return result;
+    }
+
+    private Map<Long, String> loadFarmNames(List<Map<String, Object>> rows) {
+        Set<Long> farmerIds = rows.stream()
+                .map(row -> (Long) row.get("farmerId"))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, String> farmNames = new HashMap<>();
+        for (User farmer : userRepository.findAllById(farmerIds)) {
+            farmNames.put(farmer.getId(), farmer.getFarmName());
+        }
+        return farmNames;
+    }
+
+    // One aggregation for the whole page rather than two lookups per product
+    private Map<Long, ProductRatingSummary> loadRatings(List<Map<String, Object>> rows) {
+        Set<Long> productIds = rows.stream()
+                .map(row -> (Long) row.get("id"))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, ProductRatingSummary> ratings = new HashMap<>();
+        for (ProductRatingSummary summary : reviewRepository.summarizeByProductIds(productIds)) {
+            ratings.put(summary.getProductId(), summary);
+        }
+        return ratings;
+    }
+}
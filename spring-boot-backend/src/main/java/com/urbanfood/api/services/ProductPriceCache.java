@@ -0,0 +1,124 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.events.CatalogChangedEvent;
+import com.urbanfood.api.models.oracle.Product;
+import com.urbanfood.api.repositories.oracle.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Name, price and stock of every product, kept in memory so cart reads never touch the
+ * database. Entries are refreshed after each committed catalog change; checkout still
+ * revalidates against the database, so a briefly stale entry can never be sold.
+ */
+@Component
+public class ProductPriceCache {
+    private static final Logger logger = LoggerFactory.getLogger(ProductPriceCache.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Replaced as a whole by a full reload, so readers never see it half empty
+    private volatile Map<Long, CachedProduct> products = new ConcurrentHashMap<>();
+
+    // Products changed while a full reload runs; re-read after the swap so no change is lost
+    private final Set<Long> changedDuringLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    private final TransactionTemplate primaryTransaction;
+
+    public ProductPriceCache(PlatformTransactionManager transactionManager) {
+        // Reloads must see the write that triggered them, so they read the primary, never the
+        // replica; a new transaction because after-commit listeners still see the finished one
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public record CachedProduct(Long id, Long categoryId, String name, String imageUrl, String unit, BigDecimal price,
+                                Integer stock) {
+    }
+
+    public CachedProduct get(Long productId) {
+        return products.get(productId);
+    }
+
+    // Loaded before the runners so the startup warm-up and first carts find it populated
+    @EventListener(ApplicationStartedEvent.class)
+    public synchronized void load() {
+        loading = true;
+        changedDuringLoad.clear();
+        Map<Long, CachedProduct> loaded = new ConcurrentHashMap<>();
+        try {
+            primaryTransaction.executeWithoutResult(status -> {
+                for (Product product : productRepository.findAll()) {
+                    loaded.put(product.getId(), toCached(product));
+                }
+            });
+            products = loaded;
+        } finally {
+            loading = false;
+        }
+        for (Long productId : changedDuringLoad) {
+            refresh(productId);
+        }
+        changedDuringLoad.clear();
+        logger.info("Cached prices for {} products", loaded.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getEntityType() == CatalogChangedEvent.EntityType.CATEGORY) {
+            // Deleting a category cascades to its products
+            load();
+            return;
+        }
+        refresh(event.getEntityId());
+    }
+
+    private void refresh(Long productId) {
+        markChanged(productId);
+        primaryTransaction.executeWithoutResult(status -> productRepository.findById(productId)
+                .ifPresentOrElse(this::put, () -> products.remove(productId)));
+    }
+
+    public void put(Product product) {
+        markChanged(product.getId());
+        products.put(product.getId(), toCached(product));
+    }
+
+    private void markChanged(Long productId) {
+        if (loading) {
+            changedDuringLoad.add(productId);
+        }
+    }
+
+    private static CachedProduct toCached(Product product) {
+        return new CachedProduct(product.getId(), product.getCategoryId(), product.getName(),
+                product.getImageUrl(), product.getUnit(), parsePrice(product.getPrice()), product.getStock());
+    }
+
+    /** Product.price is stored as text; anything that is not a number has no price. */
+    static BigDecimal parsePrice(String price) {
+        if (price == null || price.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(price.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.ProductDeltaDto;
+import com.urbanfood.api.events.CatalogChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes product price and stock changes to Server-Sent Event subscribers. Committed
+ * changes are only marked dirty; a scheduled flush coalesces them per product, reads the
+ * current state from {@link ProductPriceCache} and hands each matching subscriber its
+ * deltas. Idle connections hold no thread, and each subscriber keeps at most one pending
+ * delta per product: a consumer that falls too far behind is told to resync instead of
+ * buffering, and one that stops reading altogether is dropped.
+ * <p>
+ * SseEmitter writes block while a client's socket buffer is full, and nothing short of the
+ * connector's write timeout releases a blocked write. Each write therefore runs on a thread
+ * of its own from an elastic pool, so stalled clients never hold up the others: a stalled
+ * subscriber is dropped and sent nothing more, and its thread returns to the pool once the
+ * connector gives up on the write.
+ */
+@Service
+public class ProductStreamService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductStreamService.class);
+
+    private static final Long NO_CATEGORY = Long.MIN_VALUE;
+
+    @Autowired
+    private ProductPriceCache productPriceCache;
+
+    @Value("${app.stream.max-subscribers:5000}")
+    private int maxSubscribers;
+
+    @Value("${app.stream.max-pending-per-subscriber:256}")
+    private int maxPending;
+
+    @Value("${app.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.stream.max-stall-ms:10000}")
+    private long maxStallMs;
+
+    @Value("${app.stream.reconnect-ms:3000}")
+    private long reconnectMs;
+
+    @Value("${app.stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${app.stream.max-sender-threads:256}")
+    private int maxSenderThreads;
+
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    // Reserved before a subscriber is registered, so the limit holds under concurrent subscribes
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    // Product id -> its category before the first change that has not been flushed yet
+    private final Map<Long, Long> dirty = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+
+    private ExecutorService sender;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        // No queue: a drain never waits behind a blocked write. Past the maximum a drain is
+        // refused and retried on the next flush or heartbeat
+        sender = new ThreadPoolExecutor(senderThreads, Math.max(senderThreads, maxSenderThreads), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "product-stream-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Opens a stream for the given filters; empty filters match every product. Returns
+     * null when the subscriber limit has been reached.
+     */
+    public SseEmitter subscribe(Set<Long> productIds, Set<Long> categoryIds) {
+        int count;
+        do {
+            count = subscriberCount.get();
+            if (count >= maxSubscribers) {
+                return null;
+            }
+        } while (!subscriberCount.compareAndSet(count, count + 1));
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), emitter, productIds, categoryIds);
+        subscribers.put(subscriber.id, subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> drop(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        try {
+            // Buffered by the emitter until the response is committed
+            emitter.send(SseEmitter.event().name("ready").reconnectTime(reconnectMs).data(""));
+        } catch (IOException e) {
+            remove(subscriber);
+            return null;
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    // Runs ahead of ProductPriceCache so the category a product is leaving is still known
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (event.getEntityType() == CatalogChangedEvent.EntityType.CATEGORY) {
+            // Rare, and a deleted category takes its products with it
+            for (Subscriber subscriber : subscribers.values()) {
+                subscriber.requestResync();
+                schedule(subscriber);
+            }
+            return;
+        }
+        Long productId = event.getEntityId();
+        ProductPriceCache.CachedProduct previous = productPriceCache.get(productId);
+        dirty.putIfAbsent(productId, previous != null && previous.categoryId() != null
+                ? previous.categoryId() : NO_CATEGORY);
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.coalesce-ms:250}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<ProductDeltaDto> deltas = new ArrayList<>();
+        List<Long> previousCategories = new ArrayList<>();
+        for (Long productId : dirty.keySet()) {
+            Long previousCategory = dirty.remove(productId);
+            ProductPriceCache.CachedProduct product = productPriceCache.get(productId);
+            deltas.add(product != null
+                    ? new ProductDeltaDto(productId, product.categoryId(), product.name(), product.price(),
+                            product.stock(), false)
+                    : new ProductDeltaDto(productId, null, null, null, null, true));
+            previousCategories.add(previousCategory);
+        }
+
+        for (Subscriber subscriber : subscribers.values()) {
+            boolean offered = false;
+            for (int i = 0; i < deltas.size(); i++) {
+                ProductDeltaDto delta = deltas.get(i);
+                if (subscriber.accepts(delta.getProductId(), delta.getCategoryId(), previousCategories.get(i))) {
+                    subscriber.offer(delta);
+                    offered = true;
+                }
+            }
+            if (offered) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    /** Keeps idle connections alive through proxies and finds dead ones. */
+    @Scheduled(fixedDelayString = "${app.stream.heartbeat-ms:20000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    /** Drops every subscriber whose current write has been blocked for longer than max-stall-ms. */
+    @Scheduled(fixedDelayString = "${app.stream.stall-check-ms:1000}")
+    public void dropStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers.values()) {
+            long sendingSince = subscriber.sendingSince;
+            if (sendingSince != 0 && now - sendingSince > TimeUnit.MILLISECONDS.toNanos(maxStallMs)) {
+                logger.debug("Dropping stalled product stream subscriber {}", subscriber.id);
+                drop(subscriber);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscriberCount.get());
+        stats.put("senderThreads", ((ThreadPoolExecutor) sender).getPoolSize());
+        stats.put("pendingProducts", dirty.size());
+        stats.put("eventsSent", eventIds.get());
+        stats.put("resyncs", resyncs.get());
+        stats.put("dropped", dropped.get());
+        return stats;
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Every sender thread is blocked; the pending deltas stay queued for the next attempt
+                subscriber.scheduled.set(false);
+                if (subscriber.closing) {
+                    close(subscriber);
+                }
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (subscribers.containsKey(subscriber.id)) {
+                boolean resync;
+                List<ProductDeltaDto> batch;
+                synchronized (subscriber) {
+                    resync = subscriber.resync;
+                    subscriber.resync = false;
+                    batch = new ArrayList<>(subscriber.pending.values());
+                    subscriber.pending.clear();
+                }
+                boolean heartbeat = subscriber.heartbeatDue;
+                subscriber.heartbeatDue = false;
+                if (!resync && batch.isEmpty() && !heartbeat) {
+                    break;
+                }
+                subscriber.sendingSince = System.nanoTime();
+
+                if (resync) {
+                    resyncs.incrementAndGet();
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(eventIds.incrementAndGet()))
+                            .name("resync")
+                            .data(""));
+                }
+                for (ProductDeltaDto delta : batch) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(eventIds.incrementAndGet()))
+                            .name("product")
+                            .data(delta, MediaType.APPLICATION_JSON));
+                }
+                if (heartbeat && !resync && batch.isEmpty()) {
+                    subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                }
+                subscriber.sendingSince = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away, or the connector's write timeout fired after a stall
+            remove(subscriber);
+        } finally {
+            subscriber.sendingSince = 0;
+            subscriber.scheduled.set(false);
+            if (subscriber.closing) {
+                close(subscriber);
+            } else if (subscriber.hasWork() && subscribers.containsKey(subscriber.id)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber.id) != null) {
+            subscriberCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The emitter is completed by the subscriber's own drain: complete() waits on the emitter's
+     * monitor, which a blocked write holds, so calling it here could stall the caller too.
+     */
+    private void drop(Subscriber subscriber) {
+        if (remove(subscriber)) {
+            dropped.incrementAndGet();
+            subscriber.closing = true;
+            schedule(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            try {
+                subscriber.emitter.complete();
+            } catch (RuntimeException e) {
+                logger.debug("Closing product stream subscriber {} failed: {}", subscriber.id, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers.values()) {
+            if (remove(subscriber)) {
+                close(subscriber);
+            }
+        }
+    }
+
+    private final class Subscriber {
+        private final long id;
+        private final SseEmitter emitter;
+        private final Set<Long> productIds;
+        private final Set<Long> categoryIds;
+
+        // Latest delta per product; guarded by this
+        private final Map<Long, ProductDeltaDto> pending = new LinkedHashMap<>();
+        private boolean resync;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private volatile long sendingSince;
+        private volatile boolean closing;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(long id, SseEmitter emitter, Set<Long> productIds, Set<Long> categoryIds) {
+            this.id = id;
+            this.emitter = emitter;
+            this.productIds = productIds;
+            this.categoryIds = categoryIds;
+        }
+
+        private boolean accepts(Long productId, Long categoryId, Long previousCategoryId) {
+            if (productIds.isEmpty() && categoryIds.isEmpty()) {
+                return true;
+            }
+            return productIds.contains(productId)
+                    || (categoryId != null && categoryIds.contains(categoryId))
+                    || categoryIds.contains(previousCategoryId);
+        }
+
+        private synchronized void offer(ProductDeltaDto delta) {
+            if (resync) {
+                // The client will refetch everything anyway
+                return;
+            }
+            pending.put(delta.getProductId(), delta);
+            if (pending.size() > maxPending) {
+                pending.clear();
+                resync = true;
+            }
+        }
+
+        private synchronized void requestResync() {
+            pending.clear();
+            resync = true;
+        }
+
+        private synchronized boolean hasWork() {
+            return resync || !pending.isEmpty() || heartbeatDue;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.CategoryDto;
+import com.urbanfood.api.dto.ProductDto;
+import com.urbanfood.api.models.mongo.ProductRatingSummary;
+import com.urbanfood.api.models.mongo.Review;
+import com.urbanfood.api.models.oracle.Product;
+import com.urbanfood.api.models.oracle.User;
+import com.urbanfood.api.repositories.mongo.ReactiveReviewRepository;
+import com.urbanfood.api.repositories.oracle.CategoryRepository;
+import com.urbanfood.api.repositories.oracle.ProductRepository;
+import com.urbanfood.api.repositories.oracle.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reactive read path for partner integrations. Reviews come from the reactive Mongo
+ * driver; the blocking JPA repositories are bridged onto the bounded-elastic scheduler
+ * and products are read in keyset pages that are only fetched as the subscriber
+ * requests more, so a slow consumer never forces the whole table into memory.
+ */
+@Service
+public class ReactiveCatalogService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReactiveReviewRepository reactiveReviewRepository;
+
+    @Value("${app.reactive.page-size:200}")
+    private int pageSize;
+
+    public Flux<ProductDto> streamProducts() {
+        return Flux.<List<Product>, Long>generate(() -> 0L, (lastId, sink) -> {
+                    List<Product> page = productRepository.findByIdGreaterThanOrderByIdAsc(
+                            lastId, PageRequest.of(0, pageSize));
+                    if (page.isEmpty()) {
+                        sink.complete();
+                        return lastId;
+                    }
+                    sink.next(page);
+                    return page.get(page.size() - 1).getId();
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .concatMap(this::enrichPage, 1);
+    }
+
+    public Mono<ProductDto> findProduct(Long id) {
+        return blocking(() -> productRepository.findById(id).orElse(null))
+                .flatMapMany(product -> enrichPage(List.of(product)))
+                .next();
+    }
+
+    public Flux<CategoryDto> streamCategories() {
+        return blocking(categoryRepository::findAll)
+                .flatMapIterable(Function.identity())
+                .map(category -> {
+                    CategoryDto dto = new CategoryDto();
+                    dto.setId(category.getId());
+                    dto.setName(category.getName());
+                    dto.setDescription(category.getDescription());
+                    dto.setIcon(category.getIcon());
+                    return dto;
+                });
+    }
+
+    public Flux<Review> streamReviews(Long productId) {
+        return reactiveReviewRepository.findByProductId(productId);
+    }
+
+    private Flux<ProductDto> enrichPage(List<Product> page) {
+        Set<Long> farmerIds = page.stream()
+                .map(Product::getFarmerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> productIds = page.stream().map(Product::getId).collect(Collectors.toSet());
+
+        Mono<Map<Long, String>> farmNames = blocking(() -> {
+            Map<Long, String> names = new HashMap<>();
+            for (User farmer : userRepository.findAllById(farmerIds)) {
+                names.put(farmer.getId(), farmer.getFarmName());
+            }
+            return names;
+        });
+        Mono<Map<Long, ProductRatingSummary>> ratings = reactiveReviewRepository
+                .summarizeByProductIds(productIds)
+                .collectMap(ProductRatingSummary::getProductId);
+
+        return Mono.zip(farmNames, ratings)
+                .flatMapIterable(lookups -> page.stream()
+                        .map(product -> toDto(product, lookups.getT1(), lookups.getT2()))
+                        .collect(Collectors.toList()));
+    }
+
+    private static ProductDto toDto(Product product, Map<Long, String> farmNames,
+                                    Map<Long, ProductRatingSummary> ratings) {
+        ProductDto dto = ProductDtoService.copyFields(product);
+        dto.setFarmName(farmNames.get(product.getFarmerId()));
+        ProductRatingSummary rating = ratings.get(product.getId());
+        dto.setReviewCount(rating != null && rating.getReviewCount() != null ? rating.getReviewCount().intValue() : 0);
+        dto.setAverageRating(rating != null ? rating.getAverageRating() : null);
+        return dto;
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,312 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.RelatedProductDto;
+import com.urbanfood.api.events.CatalogChangedEvent;
+import com.urbanfood.api.events.OrderPlacedEvent;
+import com.urbanfood.api.models.oracle.OrderItem;
+import com.urbanfood.api.repositories.oracle.OrderItemRepository;
+import com.urbanfood.api.repositories.oracle.OrderRepository;
+import com.urbanfood.api.repositories.oracle.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * "Frequently bought together" recommendations. Keeps a sparse item-item co-occurrence
+ * matrix (one primitive row per product) built from order history and updated as orders
+ * are placed, and publishes a precomputed top-K neighbour array per product so a lookup
+ * is a single hash probe.
+ */
+@Service
+public class RelatedProductsService {
+    private static final Logger logger = LoggerFactory.getLogger(RelatedProductsService.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${app.related.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.related.top-k:20}")
+    private int topK;
+
+    // Very large orders add little signal and cost quadratic pair updates
+    @Value("${app.related.max-products-per-order:50}")
+    private int maxProductsPerOrder;
+
+    @Value("${app.analytics.backfill-chunk-size:500}")
+    private int chunkSize;
+
+    // Co-occurrence rows, written only under the monitor
+    private final IntObjectHashMap<IntIntHashMap> rows = new IntObjectHashMap<>(1024);
+    private List<OrderPlacedEvent> pendingDuringLoad = new ArrayList<>();
+    private volatile boolean loaded;
+
+    // Read path: immutable neighbour lists, replaced per product when its row changes
+    private final ConcurrentIntObjectMap<Neighbors> neighbors = new ConcurrentIntObjectMap<>(1024);
+
+    private final TransactionTemplate primaryTransaction;
+
+    public RelatedProductsService(PlatformTransactionManager transactionManager) {
+        // A delete must be seen as soon as it commits, so the check reads the primary
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public List<RelatedProductDto> getRelated(Long productId, int limit) {
+        if (productId > Integer.MAX_VALUE) {
+            return Collections.emptyList();
+        }
+        Neighbors top = neighbors.get(productId.intValue());
+        if (top == null) {
+            return Collections.emptyList();
+        }
+        int count = Math.min(limit, top.productIds.length);
+        List<RelatedProductDto> related = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            related.add(new RelatedProductDto((long) top.productIds[i], top.counts[i]));
+        }
+        return related;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::loadFromDatabase, "related-products-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void loadFromDatabase() {
+        long started = System.currentTimeMillis();
+        try {
+            // Ids are not assigned in commit order, so only these are known to be counted
+            Set<Long> scannedOrderIds = new HashSet<>();
+            long lastOrderId = 0L;
+            int orders = 0;
+            while (true) {
+                List<Long> orderIds = orderRepository.findIdsAfter(lastOrderId, PageRequest.of(0, chunkSize));
+                if (orderIds.isEmpty()) {
+                    break;
+                }
+                long chunkEnd = orderIds.get(orderIds.size() - 1);
+                List<OrderItem> items = orderItemRepository.findByOrderIdRange(lastOrderId, chunkEnd);
+
+                // Items arrive ordered by order id
+                IntIntHashMap basket = new IntIntHashMap(16);
+                Long currentOrder = null;
+                for (OrderItem item : items) {
+                    if (!item.getOrder().getId().equals(currentOrder)) {
+                        orders += recordBasket(basket, false);
+                        basket = new IntIntHashMap(16);
+                        currentOrder = item.getOrder().getId();
+                        scannedOrderIds.add(currentOrder);
+                    }
+                    addToBasket(basket, item.getProduct().getId());
+                }
+                orders += recordBasket(basket, false);
+                lastOrderId = chunkEnd;
+            }
+            finishLoad(scannedOrderIds);
+            logger.info("Built co-occurrence matrix from {} orders for {} products in {} ms",
+                    orders, neighbors.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build the co-occurrence matrix", e);
+            abandonLoad();
+        }
+    }
+
+    private synchronized void finishLoad(Set<Long> scannedOrderIds) {
+        rows.forEachKey(this::publishTopK);
+        for (OrderPlacedEvent event : pendingDuringLoad) {
+            if (!scannedOrderIds.contains(event.getOrderId())) {
+                recordOrder(event);
+            }
+        }
+        pendingDuringLoad = null;
+        loaded = true;
+    }
+
+    private synchronized void abandonLoad() {
+        pendingDuringLoad = null;
+    }
+
+    @EventListener
+    public synchronized void onOrderPlaced(OrderPlacedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!loaded) {
+            if (pendingDuringLoad != null) {
+                pendingDuringLoad.add(event);
+            }
+            return;
+        }
+        recordOrder(event);
+    }
+
+    /**
+     * Catalog events do not say whether the product was deleted, so a product that has
+     * co-occurrence data is looked up; if it is gone, its row is dropped and it is taken
+     * out of every neighbour's row and top-K list.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!enabled || event.getEntityType() != CatalogChangedEvent.EntityType.PRODUCT
+                || event.getEntityId() == null || event.getEntityId() > Integer.MAX_VALUE) {
+            return;
+        }
+        int productId = event.getEntityId().intValue();
+        synchronized (this) {
+            if (rows.get(productId) == null) {
+                return;
+            }
+        }
+        Boolean exists = primaryTransaction.execute(status -> productRepository.existsById(event.getEntityId()));
+        if (Boolean.FALSE.equals(exists)) {
+            removeProduct(productId);
+        }
+    }
+
+    private synchronized void removeProduct(int productId) {
+        IntIntHashMap row = rows.remove(productId);
+        neighbors.remove(productId);
+        if (row == null) {
+            return;
+        }
+        row.forEach((neighbor, ignored) -> {
+            IntIntHashMap neighborRow = rows.get(neighbor);
+            if (neighborRow == null) {
+                return;
+            }
+            neighborRow.remove(productId);
+            if (neighborRow.size() == 0) {
+                rows.remove(neighbor);
+                neighbors.remove(neighbor);
+            } else {
+                publishTopK(neighbor);
+            }
+        });
+    }
+
+    private void recordOrder(OrderPlacedEvent event) {
+        IntIntHashMap basket = new IntIntHashMap(event.getLines().size());
+        for (OrderPlacedEvent.Line line : event.getLines()) {
+            addToBasket(basket, line.productId());
+        }
+        recordBasket(basket, true);
+    }
+
+    // Rows are int-keyed; a product id beyond that range is left out, as getRelated never matches it
+    private static void addToBasket(IntIntHashMap basket, Long productId) {
+        if (productId != null && productId <= Integer.MAX_VALUE) {
+            basket.addTo(productId.intValue(), 1);
+        }
+    }
+
+    /**
+     * Adds one to every distinct product pair in the basket. Returns 1 if the basket was
+     * counted. Top-K lists are republished straight away only for live orders; the bulk
+     * load publishes everything once at the end.
+     */
+    private synchronized int recordBasket(IntIntHashMap basket, boolean publish) {
+        if (basket.size() < 2 || basket.size() > maxProductsPerOrder) {
+            return basket.size() == 0 ? 0 : 1;
+        }
+        int[] products = new int[basket.size()];
+        int[] index = {0};
+        basket.forEach((productId, ignored) -> products[index[0]++] = productId);
+
+        for (int a = 0; a < products.length; a++) {
+            IntIntHashMap row = rows.get(products[a]);
+            if (row == null) {
+                row = new IntIntHashMap(8);
+                rows.put(products[a], row);
+            }
+            for (int b = 0; b < products.length; b++) {
+                if (a != b) {
+                    row.addTo(products[b], 1);
+                }
+            }
+        }
+        if (publish) {
+            for (int product : products) {
+                publishTopK(product);
+            }
+        }
+        return 1;
+    }
+
+    private void publishTopK(int productId) {
+        IntIntHashMap row = rows.get(productId);
+        if (row == null || row.size() == 0) {
+            return;
+        }
+        int capacity = Math.min(topK, row.size());
+        int[] ids = new int[capacity];
+        int[] counts = new int[capacity];
+        int[] filled = {0};
+        row.forEach((neighbor, count) -> {
+            int size = filled[0];
+            if (size == capacity && !ranksAbove(count, neighbor, counts[size - 1], ids[size - 1])) {
+                return;
+            }
+            // Insertion into a short array sorted by count desc, then id asc for stable output
+            int position = size < capacity ? size : capacity - 1;
+            while (position > 0 && ranksAbove(count, neighbor, counts[position - 1], ids[position - 1])) {
+                if (position < capacity) {
+                    ids[position] = ids[position - 1];
+                    counts[position] = counts[position - 1];
+                }
+                position--;
+            }
+            ids[position] = neighbor;
+            counts[position] = count;
+            if (size < capacity) {
+                filled[0] = size + 1;
+            }
+        });
+        neighbors.put(productId, new Neighbors(ids, counts));
+    }
+
+    private static boolean ranksAbove(int count, int id, int otherCount, int otherId) {
+        return count > otherCount || (count == otherCount && id < otherId);
+    }
+
+    private static final class Neighbors {
+        private final int[] productIds;
+        private final int[] counts;
+
+        private Neighbors(int[] productIds, int[] counts) {
+            this.productIds = productIds;
+            this.counts = counts;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.DailySalesDto;
+import com.urbanfood.api.events.OrderPersistedEvent;
+import com.urbanfood.api.models.oracle.BackgroundJob;
+import com.urbanfood.api.models.oracle.FarmerDailySales;
+import com.urbanfood.api.models.oracle.Order;
+import com.urbanfood.api.models.oracle.OrderItem;
+import com.urbanfood.api.models.oracle.ProductDailySales;
+import com.urbanfood.api.repositories.oracle.FarmerDailySalesRepository;
+import com.urbanfood.api.repositories.oracle.OrderRepository;
+import com.urbanfood.api.repositories.oracle.ProductDailySalesRepository;
+import com.urbanfood.api.services.jobs.JobHandler;
+import com.urbanfood.api.services.jobs.JobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains daily per-farmer and per-product sales rollups. Each order adds its lines to
+ * the matching rows inside the order's own transaction, so the rollups commit or roll
+ * back with the order; the backfill rebuilds every row from order history.
+ * Dashboards read only the rollup tables, so their cost does not grow with order volume.
+ */
+@Service
+public class SalesRollupService implements JobHandler {
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    public static final String REBUILD_JOB = "sales-rollup-rebuild";
+
+    @Autowired
+    private FarmerDailySalesRepository farmerDailySalesRepository;
+
+    @Autowired
+    private ProductDailySalesRepository productDailySalesRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JobService jobService;
+
+    @Value("${app.analytics.rebuild-queue:analytics}")
+    private String rebuildQueue;
+
+    private final TransactionTemplate rebuildTransaction;
+
+    public SalesRollupService(PlatformTransactionManager transactionManager) {
+        // Not read-only: the rebuild writes, and must read orders from the primary
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs in the checkout transaction just before it commits. Rows are touched in
+     * farmer and product id order so concurrent checkouts lock them in the same order.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderPersisted(OrderPersistedEvent event) {
+        Order order = orderRepository.findByIdWithItemsAndProducts(event.getOrderId());
+        if (order == null) {
+            return;
+        }
+        if (order.getOrderDate() == null) {
+            logger.warn("Order {} has no order date, leaving it out of the sales rollups", order.getId());
+            return;
+        }
+        LocalDate date = order.getOrderDate().toLocalDate();
+
+        Map<Long, Totals> byFarmer = new TreeMap<>();
+        Map<Long, Totals> byProduct = new TreeMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            Long farmerId = item.getProduct().getFarmerId();
+            BigDecimal revenue = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            if (farmerId != null) {
+                byFarmer.computeIfAbsent(farmerId, id -> new Totals(farmerId)).add(item.getQuantity(), revenue);
+            }
+            byProduct.computeIfAbsent(item.getProduct().getId(), id -> new Totals(farmerId))
+                    .add(item.getQuantity(), revenue);
+        }
+
+        byFarmer.forEach((farmerId, totals) ->
+                farmerDailySalesRepository.addOrder(farmerId, date, totals.units, totals.revenue));
+        byProduct.forEach((productId, totals) ->
+                productDailySalesRepository.addOrder(productId, totals.farmerId, date, totals.units, totals.revenue));
+    }
+
+    /**
+     * Queues a rollup rebuild as a background job. Returns false when one is already
+     * queued or running on any instance.
+     */
+    public boolean requestRebuild() {
+        return jobService.enqueueUnique(rebuildQueue, REBUILD_JOB, null, REBUILD_JOB);
+    }
+
+    @Override
+    public String getJobType() {
+        return REBUILD_JOB;
+    }
+
+    @Override
+    public void handle(BackgroundJob job) {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds all rollups from order history in one transaction. Each table is refilled
+     * by a single INSERT ... SELECT, which reads a consistent snapshot of the orders; the
+     * rows it writes stay locked until commit, so a checkout that commits in between
+     * either is in the snapshot or waits and adds its increment on top of the new rows.
+     */
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        int[] rows = rebuildTransaction.execute(status -> {
+            long undated = orderRepository.countByOrderDateIsNull();
+            if (undated > 0) {
+                logger.warn("{} orders have no order date and are left out of the sales rollups", undated);
+            }
+            return new int[] {
+                    farmerDailySalesRepository.rebuildFromOrders(),
+                    productDailySalesRepository.rebuildFromOrders()
+            };
+        });
+
+        logger.info("Rebuilt sales rollups: {} farmer-days, {} product-days in {} ms",
+                rows[0], rows[1], System.currentTimeMillis() - started);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailySalesDto> getFarmerDailySales(Long farmerId, LocalDate from, LocalDate to) {
+        List<DailySalesDto> result = new ArrayList<>();
+        for (FarmerDailySales row : farmerDailySalesRepository
+                .findByFarmerIdAndSalesDateBetweenOrderBySalesDateAsc(farmerId, from, to)) {
+            result.add(new DailySalesDto(row.getSalesDate(), null, row.getUnits(), row.getRevenue(), row.getOrderCount()));
+        }
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailySalesDto> getFarmerProductDailySales(Long farmerId, LocalDate from, LocalDate to) {
+        List<DailySalesDto> result = new ArrayList<>();
+        for (ProductDailySales row : productDailySalesRepository
+                .findByFarmerIdAndSalesDateBetweenOrderBySalesDateAscProductIdAsc(farmerId, from, to)) {
+            result.add(new DailySalesDto(row.getSalesDate(), row.getProductId(), row.getUnits(),
+                    row.getRevenue(), row.getOrderCount()));
+        }
+        return result;
+    }
+
+    private static final class Totals {
+        private final Long farmerId;
+        private long units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        private Totals(Long farmerId) {
+            this.farmerId = farmerId;
+        }
+
+        private void add(int quantity, BigDecimal lineRevenue) {
+            units += quantity;
+            revenue = revenue.add(lineRevenue);
+        }
+    }
+}
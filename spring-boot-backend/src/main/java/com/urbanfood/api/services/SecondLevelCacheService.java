@@ -0,0 +1,86 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.CacheRegionStatsDto;
+import com.urbanfood.api.events.CatalogChangedEvent;
+import com.urbanfood.api.models.oracle.Category;
+import com.urbanfood.api.models.oracle.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+public class SecondLevelCacheService {
+    private static final String CATEGORY_PRODUCTS_ROLE = Category.class.getName() + ".products";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Product rows are cached and updated by Hibernate on write, but Category.products is
+     * joined on a read-only column and is not maintained when a product moves category.
+     * Changes made by another instance never went through this cache at all, so the entity
+     * and every cached query result are evicted; this runs before the other listeners so
+     * their reloads do not read the stale rows back.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Cache cache = sessionFactory().getCache();
+        if (event.isRemote()) {
+            if (event.getEntityType() == CatalogChangedEvent.EntityType.PRODUCT) {
+                cache.evictEntityData(Product.class, event.getEntityId());
+            } else {
+                cache.evictEntityData(Category.class, event.getEntityId());
+            }
+            cache.evictCollectionData(CATEGORY_PRODUCTS_ROLE);
+            cache.evictDefaultQueryRegion();
+        } else if (event.getEntityType() == CatalogChangedEvent.EntityType.PRODUCT) {
+            cache.evictCollectionData(CATEGORY_PRODUCTS_ROLE);
+        }
+    }
+
+    /** For product rows written with plain JDBC, which Hibernate never sees. */
+    public void evictProducts(Collection<Long> productIds) {
+        Cache cache = sessionFactory().getCache();
+        for (Long productId : productIds) {
+            cache.evictEntityData(Product.class, productId);
+        }
+        cache.evictDefaultQueryRegion();
+    }
+
+    public List<CacheRegionStatsDto> getRegionStatistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+        List<CacheRegionStatsDto> regions = new ArrayList<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.add(toDto(regionName, region.getHitCount(), region.getMissCount(),
+                        region.getPutCount(), region.getElementCountInMemory()));
+            }
+        }
+        regions.add(toDto("query-cache", statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(), -1));
+        return regions;
+    }
+
+    private static CacheRegionStatsDto toDto(String region, long hits, long misses, long puts, long elements) {
+        long lookups = hits + misses;
+        double hitRatio = lookups == 0 ? 0.0 : (double) hits / lookups;
+        return new CacheRegionStatsDto(region, hits, misses, puts, elements, hitRatio);
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,189 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.events.UserRegisteredEvent;
+import com.urbanfood.api.repositories.oracle.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Answers "is this username or email taken?" for signups without a query in the common
+ * case. A Bloom filter over every existing username and email (lower-cased, so case
+ * variants only cost a query) rules out most free names; only possible hits go to Oracle.
+ * <p>
+ * The filter is loaded at startup and rebuilt periodically, which resizes it for the
+ * current user count and drops names that no longer exist. Registrations, local or from
+ * peers over the invalidation bus, are added as they commit, including while a rebuild is
+ * streaming, so the filter never reports a taken name as free. Until the first load
+ * finishes every check goes to the database.
+ */
+@Service
+public class SignupFilterService implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(SignupFilterService.class);
+
+    private static final String USERNAME = "u:";
+    private static final String EMAIL = "e:";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.signup-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.signup-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.signup-filter.min-expected-users:100000}")
+    private long minExpectedUsers;
+
+    // Headroom for growth between rebuilds
+    @Value("${app.signup-filter.growth-factor:2.0}")
+    private double growthFactor;
+
+    private final TransactionTemplate primaryTransaction;
+
+    // One volatile read gives a registration both filters, so a rebuild cannot swap between them
+    private volatile Filters filters = new Filters(null, null);
+    private volatile long loadedAt;
+    private volatile long lastLoadMs;
+
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong skippedQueries = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    private record Filters(BloomFilter current, BloomFilter building) {
+    }
+
+    public SignupFilterService(PlatformTransactionManager transactionManager) {
+        // Not read-only, so the load reads the primary and cannot miss a user the replica lacks
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.signup-filter.rebuild-interval-ms:21600000}",
+            fixedDelayString = "${app.signup-filter.rebuild-interval-ms:21600000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try {
+            long users = userRepository.count();
+            BloomFilter next = BloomFilter.create(
+                    Math.max(minExpectedUsers, (long) (users * growthFactor)) * 2, falsePositiveRate);
+            // Registrations committed from here on are added by the listener; earlier ones are streamed
+            filters = new Filters(filters.current(), next);
+            primaryTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = userRepository.streamUsernamesAndEmails()) {
+                    rows.forEach(row -> {
+                        put(next, USERNAME, (String) row[0]);
+                        put(next, EMAIL, (String) row[1]);
+                    });
+                }
+            });
+            filters = new Filters(next, null);
+            loadedAt = System.currentTimeMillis();
+            lastLoadMs = loadedAt - started;
+            logger.info("Signup filter loaded {} users in {} ms: {} KiB, {} hash functions, target false-positive rate {}",
+                    users, lastLoadMs, next.getSizeBytes() / 1024, next.getHashCount(), falsePositiveRate);
+        } catch (RuntimeException e) {
+            BloomFilter current = filters.current();
+            filters = new Filters(current, null);
+            logger.warn("Loading the signup filter failed, {}: {}",
+                    current == null ? "signups check the database" : "keeping the previous filter", e.getMessage());
+        }
+    }
+
+    public boolean isUsernameTaken(String username) {
+        if (!mightExist(USERNAME, username)) {
+            return false;
+        }
+        return record(userRepository.existsByUsername(username));
+    }
+
+    public boolean isEmailTaken(String email) {
+        if (!mightExist(EMAIL, email)) {
+            return false;
+        }
+        return record(userRepository.existsByEmail(email));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        Filters targets = filters;
+        for (BloomFilter target : new BloomFilter[] {targets.current(), targets.building()}) {
+            if (target != null) {
+                put(target, USERNAME, event.getUsername());
+                put(target, EMAIL, event.getEmail());
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        BloomFilter current = filters.current();
+        stats.put("enabled", enabled);
+        stats.put("loaded", current != null);
+        stats.put("checks", checks.get());
+        stats.put("skippedQueries", skippedQueries.get());
+        stats.put("falsePositives", falsePositives.get());
+        stats.put("targetFalsePositiveRate", falsePositiveRate);
+        if (current != null) {
+            stats.put("entries", current.getInsertions());
+            stats.put("bits", current.getBitCount());
+            stats.put("sizeBytes", current.getSizeBytes());
+            stats.put("bitsPerEntry", current.getInsertions() == 0 ? 0
+                    : (double) current.getBitCount() / current.getInsertions());
+            stats.put("hashFunctions", current.getHashCount());
+            stats.put("estimatedFalsePositiveRate", current.estimatedFalsePositiveRate());
+            stats.put("loadedAt", loadedAt);
+            stats.put("lastLoadMs", lastLoadMs);
+        }
+        return stats;
+    }
+
+    private boolean mightExist(String prefix, String value) {
+        checks.incrementAndGet();
+        BloomFilter current = filters.current();
+        if (current == null || value == null || current.mightContain(key(prefix, value))) {
+            return true;
+        }
+        skippedQueries.incrementAndGet();
+        return false;
+    }
+
+    private boolean record(Boolean taken) {
+        if (!Boolean.TRUE.equals(taken) && filters.current() != null) {
+            falsePositives.incrementAndGet();
+        }
+        return Boolean.TRUE.equals(taken);
+    }
+
+    private static void put(BloomFilter target, String prefix, String value) {
+        if (value != null) {
+            target.put(key(prefix, value));
+        }
+    }
+
+    private static String key(String prefix, String value) {
+        return prefix + value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,284 @@
+package com.urbanfood.api.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbanfood.api.dto.ProductDto;
+import com.urbanfood.api.dto.WarmupReportDto;
+import com.urbanfood.api.dto.WarmupRoundDto;
+import com.urbanfood.api.models.oracle.Product;
+import com.urbanfood.api.repositories.oracle.CategoryRepository;
+import com.urbanfood.api.repositories.oracle.ProductRepository;
+import com.urbanfood.api.security.jwt.JwtUtils;
+import com.urbanfood.api.security.services.UserDetailsImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Warms caches and hot code paths before the instance reports itself ready. Application
+ * runners complete before Spring Boot publishes ACCEPTING_TRAFFIC, so the readiness probe
+ * keeps the instance out of rotation until this finishes.
+ *
+ * Warm-up preloads the catalog (snapshots, second-level cache, top-N product DTOs),
+ * exercises JWT signing and validation and Jackson serialization, then replays synthetic
+ * requests against the public catalog endpoints in rounds until the round p99 stops
+ * moving, or until the round or time budget runs out.
+ */
+@Component
+public class StartupWarmup implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductDtoService productDtoService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.warmup.top-products:100}")
+    private int topProducts;
+
+    @Value("${app.warmup.jwt-iterations:2000}")
+    private int jwtIterations;
+
+    @Value("${app.warmup.requests-per-round:200}")
+    private int requestsPerRound;
+
+    @Value("${app.warmup.concurrency:4}")
+    private int concurrency;
+
+    @Value("${app.warmup.max-rounds:20}")
+    private int maxRounds;
+
+    @Value("${app.warmup.max-duration-ms:60000}")
+    private long maxDurationMs;
+
+    // Round p99 counts as steady once it moves less than this fraction between rounds
+    @Value("${app.warmup.stable-tolerance:0.1}")
+    private double stableTolerance;
+
+    @Value("${app.warmup.stable-rounds:2}")
+    private int stableRounds;
+
+    private volatile WarmupReportDto report = new WarmupReportDto();
+
+    public WarmupReportDto getReport() {
+        return report;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        WarmupReportDto result = new WarmupReportDto();
+        if (!enabled) {
+            result.setStatus("DISABLED");
+            report = result;
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        result.setStatus("RUNNING");
+        report = result;
+
+        long started = System.nanoTime();
+        try {
+            List<Long> productIds = preload();
+            result.setPreloadMs(elapsedMs(started));
+            replay(productIds, started, result);
+            result.setStatus("COMPLETED");
+        } catch (Exception e) {
+            // A failed warm-up only costs latency; never keep the instance out of service for it
+            logger.warn("Startup warm-up aborted: {}", e.getMessage());
+            result.setStatus("FAILED");
+        }
+        result.setTotalMs(elapsedMs(started));
+        logReport(result);
+    }
+
+    private List<Long> preload() throws Exception {
+        catalogSnapshotService.rebuildNow();
+        categoryRepository.findAll();
+        productRepository.findByFeaturedTrue();
+
+        List<Product> top = productRepository
+                .findAll(PageRequest.of(0, Math.max(1, topProducts), Sort.by("id"))).getContent();
+        for (Product product : top) {
+            ProductDto dto = productDtoService.toDto(product);
+            objectMapper.writeValueAsBytes(dto);
+        }
+        objectMapper.writeValueAsBytes(productDtoService.toDtos(top));
+
+        UserDetailsImpl principal = new UserDetailsImpl(0L, "warmup", "warmup@localhost", "", "Warm-up",
+                false, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        for (int i = 0; i < jwtIterations; i++) {
+            if (jwtUtils.validateJwtToken(token)) {
+                jwtUtils.getUserNameFromJwtToken(token);
+            }
+        }
+        return top.stream().map(Product::getId).collect(Collectors.toList());
+    }
+
+    private void replay(List<Long> productIds, long started, WarmupReportDto result) throws Exception {
+        List<URI> targets = targets(productIds);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "startup-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            double previousP99 = -1;
+            int stable = 0;
+            for (int round = 1; round <= maxRounds && elapsedMs(started) < maxDurationMs; round++) {
+                WarmupRoundDto stats = runRound(round, client, workers, targets);
+                result.getRounds().add(stats);
+
+                if (previousP99 > 0 && Math.abs(stats.getP99Ms() - previousP99) <= previousP99 * stableTolerance) {
+                    stable++;
+                } else {
+                    stable = 0;
+                }
+                previousP99 = stats.getP99Ms();
+                if (stable >= stableRounds) {
+                    result.setTimeToSteadyStateMs(elapsedMs(started));
+                    result.setSteadyStateP99Ms(stats.getP99Ms());
+                    return;
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private WarmupRoundDto runRound(int round, HttpClient client, ExecutorService workers, List<URI> targets)
+            throws Exception {
+        List<Future<Long>> calls = new ArrayList<>(requestsPerRound);
+        for (int i = 0; i < requestsPerRound; i++) {
+            URI target = targets.get(i % targets.size());
+            calls.add(workers.submit(() -> {
+                HttpRequest request = HttpRequest.newBuilder(target)
+                        .header("Accept-Encoding", "gzip")
+                        .timeout(Duration.ofSeconds(10))
+                        .GET()
+                        .build();
+                long start = System.nanoTime();
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                long nanos = System.nanoTime() - start;
+                return response.statusCode() < 500 ? nanos : -1L;
+            }));
+        }
+
+        long[] latencies = new long[calls.size()];
+        int completed = 0;
+        int failures = 0;
+        for (Future<Long> call : calls) {
+            long nanos;
+            try {
+                nanos = call.get();
+            } catch (Exception e) {
+                nanos = -1L;
+            }
+            if (nanos < 0) {
+                failures++;
+            } else {
+                latencies[completed++] = nanos;
+            }
+        }
+        if (completed == 0) {
+            throw new IllegalStateException("every warm-up request in round " + round + " failed");
+        }
+        Arrays.sort(latencies, 0, completed);
+        return new WarmupRoundDto(round, completed, failures,
+                percentileMs(latencies, completed, 0.50),
+                percentileMs(latencies, completed, 0.99),
+                latencies[completed - 1] / 1_000_000.0);
+    }
+
+    private List<URI> targets(List<Long> productIds) {
+        String base = "http://localhost:" + environment.getProperty("local.server.port", "8080")
+                + environment.getProperty("server.servlet.context-path", "") + "/api";
+        List<URI> targets = new ArrayList<>();
+        targets.add(URI.create(base + "/categories"));
+        targets.add(URI.create(base + "/products"));
+        targets.add(URI.create(base + "/products/featured"));
+        targets.add(URI.create(base + "/products?fields=id,name,price"));
+        // Batch lookups run the DTO conversion without counting as product views for trending
+        for (int from = 0; from < productIds.size(); from += 20) {
+            String ids = productIds.subList(from, Math.min(productIds.size(), from + 20)).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(","));
+            targets.add(URI.create(base + "/products/batch?ids=" + ids));
+        }
+        return targets;
+    }
+
+    private static double percentileMs(long[] sorted, int count, double percentile) {
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1_000_000.0;
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private void logReport(WarmupReportDto result) {
+        for (WarmupRoundDto round : result.getRounds()) {
+            logger.info("Warm-up round {}: {} requests, {} failed, p50={} ms, p99={} ms, max={} ms",
+                    round.getRound(), round.getRequests(), round.getFailures(),
+                    String.format("%.2f", round.getP50Ms()), String.format("%.2f", round.getP99Ms()),
+                    String.format("%.2f", round.getMaxMs()));
+        }
+        if (result.getTimeToSteadyStateMs() != null) {
+            logger.info("Warm-up {} in {} ms (preload {} ms); p99 steady at {} ms after {} ms",
+                    result.getStatus().toLowerCase(), result.getTotalMs(), result.getPreloadMs(),
+                    String.format("%.2f", result.getSteadyStateP99Ms()), result.getTimeToSteadyStateMs());
+        } else {
+            logger.info("Warm-up {} in {} ms (preload {} ms); p99 did not settle within the budget",
+                    result.getStatus().toLowerCase(), result.getTotalMs(), result.getPreloadMs());
+        }
+    }
+}
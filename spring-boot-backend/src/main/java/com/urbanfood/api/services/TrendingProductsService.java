@@ -0,0 +1,234 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.TrendingProductDto;
+import com.urbanfood.api.events.CatalogChangedEvent;
+import com.urbanfood.api.events.OrderPlacedEvent;
+import com.urbanfood.api.models.oracle.Product;
+import com.urbanfood.api.repositories.oracle.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * "Trending now" scores from product views and purchases. Events land in per-core
+ * count-min sketches so request threads rarely touch the same counters; a scheduled
+ * merge folds them into one exponentially decayed sketch and re-ranks a bounded set of
+ * candidates. Memory is fixed by the sketch size, ring size and K, whatever the catalog
+ * or traffic.
+ */
+@Service
+public class TrendingProductsService {
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final int width;
+    private final int topK;
+    private final long viewWeight;
+    private final long purchaseWeight;
+    private final double decayPerMerge;
+
+    private final Shard[] shards;
+    private final int shardMask;
+
+    // Owned by the merge thread
+    private final double[] decayed;
+    private final Set<Long> tracked = new HashSet<>();
+    // Deleted products kept out of the ranking until their score has decayed away
+    private final Set<Long> deleted = new HashSet<>();
+
+    private volatile List<TrendingProductDto> trending = Collections.emptyList();
+
+    private final TransactionTemplate primaryTransaction;
+
+    public TrendingProductsService(PlatformTransactionManager transactionManager,
+                                   @Value("${app.trending.sketch-width:4096}") int width,
+                                   @Value("${app.trending.top-k:50}") int topK,
+                                   @Value("${app.trending.candidate-ring-size:1024}") int ringSize,
+                                   @Value("${app.trending.view-weight:1}") long viewWeight,
+                                   @Value("${app.trending.purchase-weight:5}") long purchaseWeight,
+                                   @Value("${app.trending.half-life-ms:3600000}") long halfLifeMs,
+                                   @Value("${app.trending.merge-interval-ms:5000}") long mergeIntervalMs) {
+        this.width = Integer.highestOneBit(Math.max(64, width));
+        this.topK = topK;
+        this.viewWeight = viewWeight;
+        this.purchaseWeight = purchaseWeight;
+        this.decayPerMerge = Math.pow(0.5, (double) mergeIntervalMs / halfLifeMs);
+
+        int shardCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(DEPTH * this.width, Integer.highestOneBit(Math.max(16, ringSize)));
+        }
+        this.shardMask = shardCount - 1;
+        this.decayed = new double[DEPTH * this.width];
+
+        // A delete must be seen as soon as it commits, so the check reads the primary
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void recordView(Long productId) {
+        record(productId, viewWeight);
+    }
+
+    @EventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        for (OrderPlacedEvent.Line line : event.getLines()) {
+            record(line.productId(), purchaseWeight * line.quantity());
+        }
+    }
+
+    /**
+     * Catalog events do not say whether the product was deleted, so trending products the
+     * event may concern are looked up; any that are gone leave the published list at once
+     * instead of lingering until their score decays.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Set<Long> candidates = new HashSet<>();
+        for (TrendingProductDto product : trending) {
+            // Deleting a category cascades to its products
+            if (event.getEntityType() == CatalogChangedEvent.EntityType.CATEGORY
+                    || product.getProductId().equals(event.getEntityId())) {
+                candidates.add(product.getProductId());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        primaryTransaction.executeWithoutResult(status -> {
+            for (Product product : productRepository.findAllById(candidates)) {
+                candidates.remove(product.getId());
+            }
+        });
+        if (!candidates.isEmpty()) {
+            removeProducts(candidates);
+        }
+    }
+
+    private synchronized void removeProducts(Set<Long> productIds) {
+        deleted.addAll(productIds);
+        tracked.removeAll(productIds);
+        List<TrendingProductDto> remaining = new ArrayList<>(trending);
+        remaining.removeIf(product -> productIds.contains(product.getProductId()));
+        trending = Collections.unmodifiableList(remaining);
+    }
+
+    private void record(Long productId, long weight) {
+        if (productId == null || weight <= 0) {
+            return;
+        }
+        Shard shard = shards[(int) mix(Thread.currentThread().getId(), SEEDS[0]) & shardMask];
+        long id = productId;
+        for (int row = 0; row < DEPTH; row++) {
+            shard.counts.getAndAdd(cell(row, id), weight);
+        }
+        shard.ring.set((int) (shard.cursor.getAndIncrement() & shard.ringMask), id);
+    }
+
+    public List<TrendingProductDto> getTrending(int limit) {
+        List<TrendingProductDto> current = trending;
+        return current.size() > limit ? current.subList(0, limit) : current;
+    }
+
+    /**
+     * Drains every shard into the decayed sketch and re-ranks the previous top-K plus
+     * the products sampled by the shard rings since the last merge.
+     */
+    @Scheduled(fixedDelayString = "${app.trending.merge-interval-ms:5000}")
+    public synchronized void merge() {
+        for (int cell = 0; cell < decayed.length; cell++) {
+            decayed[cell] *= decayPerMerge;
+        }
+        for (Shard shard : shards) {
+            for (int cell = 0; cell < decayed.length; cell++) {
+                long delta = shard.counts.getAndSet(cell, 0L);
+                if (delta != 0) {
+                    decayed[cell] += delta;
+                }
+            }
+            for (int slot = 0; slot <= shard.ringMask; slot++) {
+                long id = shard.ring.getAndSet(slot, 0L);
+                if (id != 0) {
+                    tracked.add(id);
+                }
+            }
+        }
+
+        PriorityQueue<TrendingProductDto> best =
+                new PriorityQueue<>(topK + 1, Comparator.comparingDouble(TrendingProductDto::getScore));
+        deleted.removeIf(id -> estimate(id) < 0.5);
+        for (Long id : tracked) {
+            double score = estimate(id);
+            if (score < 0.5 || deleted.contains(id)) {
+                continue;
+            }
+            if (best.size() < topK) {
+                best.add(new TrendingProductDto(id, score));
+            } else if (score > best.peek().getScore()) {
+                best.poll();
+                best.add(new TrendingProductDto(id, score));
+            }
+        }
+
+        List<TrendingProductDto> ranked = new ArrayList<>(best);
+        ranked.sort(Comparator.comparingDouble(TrendingProductDto::getScore).reversed());
+        // Only the winners stay tracked, so the candidate set never exceeds K plus one drain
+        tracked.clear();
+        for (TrendingProductDto product : ranked) {
+            tracked.add(product.getProductId());
+        }
+        trending = Collections.unmodifiableList(ranked);
+    }
+
+    private double estimate(long id) {
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, decayed[cell(row, id)]);
+        }
+        return min;
+    }
+
+    private int cell(int row, long id) {
+        return row * width + (int) (mix(id, SEEDS[row]) & (width - 1));
+    }
+
+    private static long mix(long value, long seed) {
+        long h = (value ^ seed) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 31)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 29);
+    }
+
+    private static final class Shard {
+        private final AtomicLongArray counts;
+        // Recently seen product ids; heavy hitters show up here often enough to be sampled
+        private final AtomicLongArray ring;
+        private final int ringMask;
+        private final AtomicLong cursor = new AtomicLong();
+
+        private Shard(int cells, int ringSize) {
+            this.counts = new AtomicLongArray(cells);
+            this.ring = new AtomicLongArray(ringSize);
+            this.ringMask = ringSize - 1;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.urbanfood.api.services.invalidation;
+
+/**
+ * Wall-clock milliseconds in the high 48 bits and a logical counter in the low 16. Readings
+ * only move forward, even across clock steps, and observing a peer's reading pulls this
+ * clock past it, so a change made after seeing another instance's change always sorts later.
+ */
+class HybridLogicalClock {
+    static final int LOGICAL_BITS = 16;
+
+    private long last;
+
+    synchronized long now() {
+        long physical = System.currentTimeMillis() << LOGICAL_BITS;
+        last = physical > last ? physical : last + 1;
+        return last;
+    }
+
+    synchronized void observe(long remote) {
+        if (remote > last) {
+            last = remote;
+        }
+    }
+
+    static long physicalMillis(long version) {
+        return version >>> LOGICAL_BITS;
+    }
+}
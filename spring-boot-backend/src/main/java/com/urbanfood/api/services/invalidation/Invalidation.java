@@ -0,0 +1,14 @@
+package com.urbanfood.api.services.invalidation;
+
+/**
+ * One cached entity to drop on every peer. The version is the writer's hybrid logical
+ * clock reading at commit time, so versions from different instances are comparable.
+ */
+public record Invalidation(EntityType type, long id, long version) {
+
+    public enum EntityType {
+        PRODUCT,
+        CATEGORY,
+        USER
+    }
+}
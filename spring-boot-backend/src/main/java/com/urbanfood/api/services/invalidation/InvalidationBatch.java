@@ -0,0 +1,6 @@
+package com.urbanfood.api.services.invalidation;
+
+import java.util.List;
+
+public record InvalidationBatch(String origin, List<Invalidation> entries) {
+}
@@ -0,0 +1,251 @@
+package com.urbanfood.api.services.invalidation;
+
+import com.urbanfood.api.events.CatalogChangedEvent;
+import com.urbanfood.api.events.UserRegisteredEvent;
+import com.urbanfood.api.models.oracle.User;
+import com.urbanfood.api.repositories.oracle.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the per-instance caches (second-level cache, price cache, catalog snapshots, farm
+ * index) coherent across instances. Committed local changes are batched and published
+ * through the configured {@link InvalidationTransport}; batches from peers are replayed as
+ * remote {@link CatalogChangedEvent}s and {@link UserRegisteredEvent}s, which the caches
+ * already handle, and are never re-broadcast.
+ * <p>
+ * Messages carry no data: peers re-read the entity, so a reordered message can never put
+ * an older state back into a cache. The highest version seen per entity is kept for a
+ * while, and a message older than that by more than the allowed clock skew is known to be
+ * covered by a later reload and is dropped.
+ */
+@Service
+public class InvalidationBus {
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+    @Autowired(required = false)
+    private InvalidationTransport transport;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.invalidation.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${app.invalidation.max-queued:100000}")
+    private int maxQueued;
+
+    @Value("${app.invalidation.version-retention-ms:600000}")
+    private long versionRetentionMs;
+
+    @Value("${app.invalidation.max-clock-skew-ms:1000}")
+    private long maxClockSkewMs;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final HybridLogicalClock clock = new HybridLogicalClock();
+    private final Queue<Invalidation> outgoing = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<Key, Long> versions = new ConcurrentHashMap<>();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    private final TransactionTemplate primaryTransaction;
+
+    private record Key(Invalidation.EntityType type, long id) {
+    }
+
+    public InvalidationBus(PlatformTransactionManager transactionManager) {
+        // The peer's commit may not have reached the replica yet, so re-reads go to the primary
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    void start() {
+        if (transport == null) {
+            logger.info("No invalidation transport configured, caches are only kept coherent on this instance");
+            return;
+        }
+        transport.start(this::receive);
+        logger.info("Invalidation bus started as {} over {}", instanceId, transport.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (transport != null) {
+            flush();
+            transport.stop();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        enqueue(event.getEntityType() == CatalogChangedEvent.EntityType.CATEGORY
+                ? Invalidation.EntityType.CATEGORY : Invalidation.EntityType.PRODUCT, event.getEntityId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        enqueue(Invalidation.EntityType.USER, event.getUserId());
+    }
+
+    private void enqueue(Invalidation.EntityType type, Long id) {
+        if (transport == null || id == null) {
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            // The transport has been down for a long time; peers fall back to their cache TTLs
+            queued.decrementAndGet();
+            discarded.incrementAndGet();
+            return;
+        }
+        long version = clock.now();
+        versions.merge(new Key(type, id), version, Math::max);
+        outgoing.add(new Invalidation(type, id, version));
+    }
+
+    @Scheduled(fixedDelayString = "${app.invalidation.batch-interval-ms:50}")
+    public void flush() {
+        if (transport == null || outgoing.isEmpty()) {
+            return;
+        }
+        // Repeated changes to one entity within the interval collapse to the newest version
+        Map<Key, Invalidation> latest = new LinkedHashMap<>();
+        Invalidation next;
+        while ((next = outgoing.poll()) != null) {
+            queued.decrementAndGet();
+            latest.merge(new Key(next.type(), next.id()), next,
+                    (current, candidate) -> candidate.version() > current.version() ? candidate : current);
+        }
+
+        List<Invalidation> entries = new ArrayList<>(latest.values());
+        for (int from = 0; from < entries.size(); from += maxBatchSize) {
+            List<Invalidation> chunk = entries.subList(from, Math.min(entries.size(), from + maxBatchSize));
+            try {
+                transport.publish(new InvalidationBatch(instanceId, new ArrayList<>(chunk)));
+                sent.addAndGet(chunk.size());
+                batchesSent.incrementAndGet();
+            } catch (RuntimeException e) {
+                logger.warn("Publishing {} invalidations failed, retrying on the next flush: {}",
+                        entries.size() - from, e.getMessage());
+                for (Invalidation invalidation : entries.subList(from, entries.size())) {
+                    if (queued.incrementAndGet() <= maxQueued) {
+                        outgoing.add(invalidation);
+                    } else {
+                        queued.decrementAndGet();
+                        discarded.incrementAndGet();
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    void receive(InvalidationBatch batch) {
+        if (instanceId.equals(batch.origin())) {
+            return;
+        }
+        for (Invalidation invalidation : batch.entries()) {
+            received.incrementAndGet();
+            clock.observe(invalidation.version());
+            if (!advance(new Key(invalidation.type(), invalidation.id()), invalidation.version())) {
+                superseded.incrementAndGet();
+                continue;
+            }
+            try {
+                apply(invalidation);
+                applied.incrementAndGet();
+            } catch (RuntimeException e) {
+                logger.warn("Applying invalidation {} failed: {}", invalidation, e.getMessage());
+            }
+        }
+    }
+
+    /** Records the version and returns whether the message may describe a change not yet reloaded. */
+    private boolean advance(Key key, long version) {
+        long skew = maxClockSkewMs << HybridLogicalClock.LOGICAL_BITS;
+        boolean[] fresh = new boolean[1];
+        versions.compute(key, (k, current) -> {
+            if (current == null || version > current - skew) {
+                fresh[0] = true;
+                return current == null ? version : Math.max(current, version);
+            }
+            return current;
+        });
+        return fresh[0];
+    }
+
+    private void apply(Invalidation invalidation) {
+        switch (invalidation.type()) {
+            case PRODUCT -> eventPublisher.publishEvent(CatalogChangedEvent.remote(
+                    this, CatalogChangedEvent.EntityType.PRODUCT, invalidation.id()));
+            case CATEGORY -> eventPublisher.publishEvent(CatalogChangedEvent.remote(
+                    this, CatalogChangedEvent.EntityType.CATEGORY, invalidation.id()));
+            case USER -> {
+                User user = primaryTransaction.execute(status -> userRepository.findById(invalidation.id()).orElse(null));
+                if (user != null) {
+                    eventPublisher.publishEvent(new UserRegisteredEvent(this, user.getId(), user.getUsername(),
+                            user.getEmail(), user.isFarmer(), user.getCity(), user.getZipCode(), true));
+                }
+            }
+        }
+    }
+
+    // A message delayed longer than the retention can only cause one redundant reload
+    @Scheduled(fixedDelayString = "${app.invalidation.sweep-interval-ms:60000}")
+    public void sweepVersions() {
+        long cutoff = System.currentTimeMillis() - versionRetentionMs;
+        versions.values().removeIf(version -> HybridLogicalClock.physicalMillis(version) < cutoff);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("instanceId", instanceId);
+        stats.put("transport", transport == null ? "none" : transport.getClass().getSimpleName());
+        stats.put("queued", queued.get());
+        stats.put("sent", sent.get());
+        stats.put("batchesSent", batchesSent.get());
+        stats.put("received", received.get());
+        stats.put("applied", applied.get());
+        stats.put("superseded", superseded.get());
+        stats.put("discarded", discarded.get());
+        stats.put("trackedVersions", versions.size());
+        return stats;
+    }
+}
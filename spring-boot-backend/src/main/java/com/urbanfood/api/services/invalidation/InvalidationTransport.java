@@ -0,0 +1,17 @@
+package com.urbanfood.api.services.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidation batches between instances. Delivery is at-most-once and unordered;
+ * the bus tolerates both because invalidations carry no data and are versioned.
+ */
+public interface InvalidationTransport {
+
+    void publish(InvalidationBatch batch);
+
+    /** Starts delivering batches from every instance, including this one, to the receiver. */
+    void start(Consumer<InvalidationBatch> receiver);
+
+    void stop();
+}
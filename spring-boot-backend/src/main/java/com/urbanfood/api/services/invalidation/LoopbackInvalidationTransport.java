@@ -0,0 +1,48 @@
+package com.urbanfood.api.services.invalidation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * Delivers batches synchronously to every bus in this JVM on the same channel. Enough for a
+ * single instance, and lets several application contexts started side by side (in a test,
+ * say) invalidate each other without any infrastructure.
+ */
+@Component
+@ConditionalOnProperty(name = "app.invalidation.transport", havingValue = "loopback")
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+    private static final Map<String, Set<Consumer<InvalidationBatch>>> CHANNELS = new ConcurrentHashMap<>();
+
+    @Value("${app.invalidation.loopback.channel:default}")
+    private String channel;
+
+    private Consumer<InvalidationBatch> receiver;
+
+    @Override
+    public void publish(InvalidationBatch batch) {
+        for (Consumer<InvalidationBatch> peer : CHANNELS.getOrDefault(channel, Set.of())) {
+            peer.accept(batch);
+        }
+    }
+
+    @Override
+    public void start(Consumer<InvalidationBatch> receiver) {
+        this.receiver = receiver;
+        CHANNELS.computeIfAbsent(channel, name -> new CopyOnWriteArraySet<>()).add(receiver);
+    }
+
+    @Override
+    public void stop() {
+        Set<Consumer<InvalidationBatch>> peers = CHANNELS.get(channel);
+        if (peers != null && receiver != null) {
+            peers.remove(receiver);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.urbanfood.api.services.invalidation;
+
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Shares batches through a capped MongoDB collection that every instance tails. Old batches
+ * age out of the collection on their own; an instance only reads batches written after it
+ * started tailing, and resumes after the last one it saw when the cursor is lost.
+ */
+@Component
+@ConditionalOnProperty(name = "app.invalidation.transport", havingValue = "mongo")
+public class MongoInvalidationTransport implements InvalidationTransport {
+    private static final Logger logger = LoggerFactory.getLogger(MongoInvalidationTransport.class);
+
+    private static final long MAX_BACKOFF_MS = 30000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.invalidation.mongo.collection:cache_invalidations}")
+    private String collectionName;
+
+    @Value("${app.invalidation.mongo.capped-size-bytes:16777216}")
+    private long cappedSizeBytes;
+
+    private volatile boolean collectionReady;
+    private volatile boolean running;
+    private Thread tailer;
+
+    @Override
+    public void publish(InvalidationBatch batch) {
+        // Short keys: every instance reads every batch
+        List<Document> entries = new ArrayList<>(batch.entries().size());
+        for (Invalidation invalidation : batch.entries()) {
+            entries.add(new Document("t", invalidation.type().name().substring(0, 1))
+                    .append("i", invalidation.id())
+                    .append("v", invalidation.version()));
+        }
+        collection().insertOne(new Document("o", batch.origin()).append("e", entries));
+    }
+
+    @Override
+    public void start(Consumer<InvalidationBatch> receiver) {
+        running = true;
+        tailer = new Thread(() -> tail(receiver), "invalidation-tailer");
+        tailer.setDaemon(true);
+        tailer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (tailer != null) {
+            tailer.interrupt();
+        }
+    }
+
+    private void tail(Consumer<InvalidationBatch> receiver) {
+        ObjectId lastSeen = null;
+        long backoffMs = 500;
+        while (running) {
+            try {
+                MongoCollection<Document> collection = collection();
+                if (lastSeen == null) {
+                    lastSeen = newestId(collection);
+                }
+                try (MongoCursor<Document> cursor = collection.find(Filters.gt("_id", lastSeen))
+                        .cursorType(CursorType.TailableAwait)
+                        .noCursorTimeout(true)
+                        .maxAwaitTime(1, TimeUnit.SECONDS)
+                        .iterator()) {
+                    backoffMs = 500;
+                    while (running) {
+                        Document document = cursor.tryNext();
+                        if (document == null) {
+                            if (cursor.getServerCursor() == null) {
+                                break;
+                            }
+                            continue;
+                        }
+                        lastSeen = document.getObjectId("_id");
+                        InvalidationBatch batch = toBatch(document);
+                        if (batch != null) {
+                            receiver.accept(batch);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Tailing {} failed, retrying in {} ms: {}", collectionName, backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+            }
+        }
+    }
+
+    /**
+     * A tailable cursor on an empty capped collection dies straight away, so the collection
+     * is seeded with a marker and tailing starts after whatever is newest.
+     */
+    private ObjectId newestId(MongoCollection<Document> collection) {
+        Document newest = collection.find().sort(Sorts.descending("_id")).limit(1).first();
+        if (newest != null) {
+            return newest.getObjectId("_id");
+        }
+        Document marker = new Document("o", "marker").append("e", List.of());
+        collection.insertOne(marker);
+        return marker.getObjectId("_id");
+    }
+
+    private MongoCollection<Document> collection() {
+        if (!collectionReady && !mongoTemplate.collectionExists(collectionName)) {
+            try {
+                mongoTemplate.createCollection(collectionName, CollectionOptions.empty().capped().size(cappedSizeBytes));
+            } catch (RuntimeException e) {
+                // Another instance created it first
+                logger.debug("Creating {} failed: {}", collectionName, e.getMessage());
+            }
+        }
+        collectionReady = true;
+        return mongoTemplate.getCollection(collectionName);
+    }
+
+    private static InvalidationBatch toBatch(Document document) {
+        List<Document> entries = document.getList("e", Document.class);
+        if (entries == null || entries.isEmpty()) {
+            return null;
+        }
+        List<Invalidation> invalidations = new ArrayList<>(entries.size());
+        for (Document entry : entries) {
+            Invalidation.EntityType type = switch (entry.getString("t")) {
+                case "P" -> Invalidation.EntityType.PRODUCT;
+                case "C" -> Invalidation.EntityType.CATEGORY;
+                case "U" -> Invalidation.EntityType.USER;
+                default -> null;
+            };
+            if (type != null) {
+                invalidations.add(new Invalidation(type, entry.get("i", Number.class).longValue(),
+                        entry.get("v", Number.class).longValue()));
+            }
+        }
+        return new InvalidationBatch(document.getString("o"), invalidations);
+    }
+}
@@ -0,0 +1,16 @@
+package com.urbanfood.api.services.jobs;
+
+import com.urbanfood.api.models.oracle.BackgroundJob;
+
+/**
+ * Runs one type of background job. Delivery is at-least-once: a job whose worker dies
+ * mid-run is picked up again once its lease expires, so a handler must cope with running
+ * a job that has already partly or fully succeeded.
+ */
+public interface JobHandler {
+
+    String getJobType();
+
+    /** Any exception fails the attempt; the job is retried with backoff until it runs out of attempts. */
+    void handle(BackgroundJob job) throws Exception;
+}
@@ -0,0 +1,57 @@
+package com.urbanfood.api.services.jobs;
+
+import com.urbanfood.api.models.oracle.BackgroundJob;
+import com.urbanfood.api.repositories.oracle.BackgroundJobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class JobService {
+    public static final String DEFAULT_QUEUE = "default";
+
+    @Autowired
+    private BackgroundJobRepository backgroundJobRepository;
+
+    @Value("${app.jobs.max-attempts:5}")
+    private int maxAttempts;
+
+    private final TransactionTemplate newTransaction;
+
+    public JobService(PlatformTransactionManager transactionManager) {
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Queues a job. Called inside a transaction the job joins it, so it only runs if the
+     * caller's own changes commit.
+     */
+    @Transactional
+    public BackgroundJob enqueue(String queue, String jobType, String payload) {
+        return backgroundJobRepository.save(new BackgroundJob(queue, jobType, payload, null, maxAttempts));
+    }
+
+    /**
+     * Queues a job unless one with the same key is still pending or running, in which case
+     * false is returned. Always commits in a transaction of its own.
+     */
+    public boolean enqueueUnique(String queue, String jobType, String payload, String dedupeKey) {
+        if (backgroundJobRepository.existsByDedupeKey(dedupeKey)) {
+            return false;
+        }
+        try {
+            // The unique key settles races between instances
+            newTransaction.executeWithoutResult(status -> backgroundJobRepository.save(
+                    new BackgroundJob(queue, jobType, payload, dedupeKey, maxAttempts)));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.urbanfood.api.services.jobs;
+
+import com.urbanfood.api.models.oracle.BackgroundJob;
+import com.urbanfood.api.repositories.oracle.BackgroundJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs background jobs from the configured queues. Each poll claims at most as many jobs
+ * per queue as that queue has free slots, so a queue's concurrency limit holds on every
+ * instance and a slow queue cannot starve the others. Claimed jobs are leased: the lease
+ * is renewed while the job runs, and a job whose owner stopped renewing it is returned to
+ * its queue by whichever instance sweeps first.
+ */
+@Service
+public class JobWorker {
+    private static final Logger logger = LoggerFactory.getLogger(JobWorker.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private BackgroundJobRepository backgroundJobRepository;
+
+    @Autowired(required = false)
+    private List<JobHandler> handlerBeans = List.of();
+
+    @Value("${app.jobs.enabled:true}")
+    private boolean enabled;
+
+    // queue:concurrency pairs, e.g. default:4,analytics:1
+    @Value("${app.jobs.queues:default:4}")
+    private String queueSpec;
+
+    @Value("${app.jobs.claim-batch-size:20}")
+    private int claimBatchSize;
+
+    @Value("${app.jobs.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${app.jobs.initial-backoff-ms:5000}")
+    private long initialBackoffMs;
+
+    @Value("${app.jobs.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${app.jobs.dead-retention-hours:168}")
+    private long deadRetentionHours;
+
+    @Value("${app.jobs.shutdown-grace-ms:10000}")
+    private long shutdownGraceMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    private final String owner = UUID.randomUUID().toString();
+    private final TransactionTemplate transaction;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, JobHandler> handlers = new HashMap<>();
+    private final Map<String, QueueState> queues = new LinkedHashMap<>();
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService executor;
+    private volatile boolean stopping;
+
+    public JobWorker(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        for (JobHandler handler : handlerBeans) {
+            handlers.put(handler.getJobType(), handler);
+        }
+        int threads = 0;
+        for (String entry : queueSpec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalStateException("Invalid app.jobs.queues entry: " + entry);
+            }
+            QueueState queue = new QueueState(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+            queues.put(queue.name, queue);
+            threads += queue.concurrency;
+        }
+        executor = createExecutor(threads);
+        logger.info("Job worker {} serving queues {} with handlers {}", owner, queueSpec, handlers.keySet());
+    }
+
+    private ExecutorService createExecutor(int threads) {
+        if (virtualThreadsEnabled && Runtime.version().feature() >= 21) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Virtual threads requested but unavailable, using a bounded pool: {}", e.getMessage());
+            }
+        }
+        // The queue semaphores already bound the work, so the pool never needs to queue much
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "job-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.poll-interval-ms:500}")
+    public void poll() {
+        if (!enabled || stopping) {
+            return;
+        }
+        for (QueueState queue : queues.values()) {
+            // Only this thread takes permits, so the free slots cannot shrink before they are used
+            int free = Math.min(queue.permits.availablePermits(), claimBatchSize);
+            if (free == 0) {
+                continue;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<BackgroundJob> jobs;
+            try {
+                jobs = transaction.execute(status -> backgroundJobRepository.claim(
+                        queue.name, owner, now, now.plusNanos(leaseMs * 1_000_000), free));
+            } catch (RuntimeException e) {
+                logger.warn("Claiming jobs from queue {} failed: {}", queue.name, e.getMessage());
+                continue;
+            }
+            for (BackgroundJob job : jobs) {
+                queue.permits.acquireUninterruptibly();
+                running.add(job.getId());
+                try {
+                    executor.execute(() -> run(queue, job));
+                } catch (RejectedExecutionException e) {
+                    // Shutting down; hand the job back rather than leave it RUNNING until its lease expires
+                    running.remove(job.getId());
+                    queue.permits.release();
+                    release(job);
+                }
+            }
+        }
+    }
+
+    private void release(BackgroundJob job) {
+        try {
+            transaction.executeWithoutResult(status -> backgroundJobRepository.release(job.getId(), owner));
+        } catch (RuntimeException e) {
+            logger.warn("Releasing job {} failed: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private void run(QueueState queue, BackgroundJob job) {
+        long started = System.nanoTime();
+        try {
+            JobHandler handler = handlers.get(job.getJobType());
+            if (handler == null) {
+                // Possibly queued by a newer release during a rolling deploy
+                throw new IllegalStateException("No handler for job type " + job.getJobType());
+            }
+            handler.handle(job);
+            transaction.executeWithoutResult(status -> backgroundJobRepository.complete(job.getId(), owner));
+            queue.completed.increment();
+        } catch (Exception e) {
+            fail(queue, job, e);
+        } finally {
+            queue.duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            running.remove(job.getId());
+            queue.permits.release();
+        }
+    }
+
+    private void fail(QueueState queue, BackgroundJob job, Exception cause) {
+        String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        String message = error;
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (job.getAttempts() >= job.getMaxAttempts()) {
+                transaction.executeWithoutResult(status ->
+                        backgroundJobRepository.bury(job.getId(), owner, now, message));
+                queue.dead.increment();
+                logger.error("Job {} ({}) failed for good after {} attempts: {}",
+                        job.getId(), job.getJobType(), job.getAttempts(), message);
+            } else {
+                long delayMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(job.getAttempts() - 1, 20));
+                transaction.executeWithoutResult(status -> backgroundJobRepository.retry(
+                        job.getId(), owner, now.plusNanos(delayMs * 1_000_000), message));
+                queue.retried.increment();
+                logger.warn("Job {} ({}) failed on attempt {}, retrying in {} ms: {}",
+                        job.getId(), job.getJobType(), job.getAttempts(), delayMs, message);
+            }
+        } catch (RuntimeException e) {
+            // The lease runs out and the sweep hands the job back
+            logger.warn("Recording the failure of job {} failed: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.lease-renew-ms:60000}")
+    public void renewLeases() {
+        if (running.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> ids = new ArrayList<>(running);
+            LocalDateTime until = LocalDateTime.now().plusNanos(leaseMs * 1_000_000);
+            transaction.executeWithoutResult(status -> backgroundJobRepository.extendLeases(ids, owner, until));
+        } catch (RuntimeException e) {
+            logger.warn("Renewing {} job leases failed: {}", running.size(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.sweep-interval-ms:60000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int[] counts = transaction.execute(status -> new int[] {
+                    backgroundJobRepository.releaseExpired(now),
+                    backgroundJobRepository.buryExpired(now),
+                    backgroundJobRepository.purgeDead(now.minusHours(deadRetentionHours))
+            });
+            if (counts != null && (counts[0] > 0 || counts[1] > 0)) {
+                logger.warn("Recovered {} jobs with expired leases, {} of them out of attempts",
+                        counts[0] + counts[1], counts[1]);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Sweeping expired jobs failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        stopping = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownGraceMs, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        try {
+            // Jobs cut short by the shutdown go straight back instead of waiting out their lease
+            Integer released = transaction.execute(status -> backgroundJobRepository.releaseOwned(owner));
+            if (released != null && released > 0) {
+                logger.info("Released {} unfinished jobs on shutdown", released);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Releasing unfinished jobs failed: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Map<String, Object>> byQueue = new LinkedHashMap<>();
+        for (QueueState queue : queues.values()) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("concurrency", queue.concurrency);
+            stats.put("runningHere", queue.concurrency - queue.permits.availablePermits());
+            stats.put("completed", (long) queue.completed.count());
+            stats.put("retried", (long) queue.retried.count());
+            stats.put("dead", (long) queue.dead.count());
+            stats.put("meanMillis", queue.duration.mean(TimeUnit.MILLISECONDS));
+            byQueue.put(queue.name, stats);
+        }
+
+        // Depth across all instances, including queues this instance does not serve
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] row : backgroundJobRepository.countByQueueAndStatus()) {
+            Map<String, Object> stats = byQueue.computeIfAbsent((String) row[0], name -> new LinkedHashMap<>());
+            BackgroundJob.Status status = (BackgroundJob.Status) row[1];
+            stats.put(status.name().toLowerCase() + "Jobs", row[2]);
+            if (status == BackgroundJob.Status.PENDING && row[3] != null) {
+                stats.put("oldestDueMillis", Math.max(0, Duration.between((LocalDateTime) row[3], now).toMillis()));
+            }
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("owner", owner);
+        stats.put("handlers", handlers.keySet());
+        stats.put("queues", byQueue);
+        return stats;
+    }
+
+    private final class QueueState {
+        private final String name;
+        private final int concurrency;
+        private final Semaphore permits;
+        private final Counter completed;
+        private final Counter retried;
+        private final Counter dead;
+        private final Timer duration;
+
+        private QueueState(String name, int concurrency) {
+            this.name = name;
+            this.concurrency = concurrency;
+            this.permits = new Semaphore(concurrency);
+            this.completed = Counter.builder("jobs.completed").tag("queue", name).register(meterRegistry);
+            this.retried = Counter.builder("jobs.retried").tag("queue", name).register(meterRegistry);
+            this.dead = Counter.builder("jobs.dead").tag("queue", name).register(meterRegistry);
+            this.duration = Timer.builder("jobs.duration").tag("queue", name).register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.urbanfood.api.services.querystats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Running totals for one endpoint, folded in as each request completes. */
+final class EndpointQueryStats {
+    private static final int MAX_REPEATED_SHAPES = 20;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+    private final LongAdder statementNanos = new LongAdder();
+    private final LongAdder slowStatements = new LongAdder();
+    private final LongAdder entityLoads = new LongAdder();
+    private final LongAdder collectionFetches = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cachePuts = new LongAdder();
+    private final LongAdder nPlusOneRequests = new LongAdder();
+    // Statement shape -> most executions seen within a single request
+    private final Map<String, Long> repeatedShapes = new ConcurrentHashMap<>();
+
+    void add(RequestQueryStats request) {
+        int requestStatements = request.statements.get();
+        requests.increment();
+        statements.add(requestStatements);
+        maxStatements.accumulate(requestStatements);
+        statementNanos.add(request.statementNanos.get());
+        slowStatements.add(request.slowStatements.get());
+        entityLoads.add(request.entityLoads.get());
+        collectionFetches.add(request.collectionFetches.get());
+        cacheHits.add(request.cacheHits.get());
+        cacheMisses.add(request.cacheMisses.get());
+        cachePuts.add(request.cachePuts.get());
+    }
+
+    void nPlusOne(String shape, int executions) {
+        nPlusOneRequests.increment();
+        if (repeatedShapes.size() < MAX_REPEATED_SHAPES || repeatedShapes.containsKey(shape)) {
+            repeatedShapes.merge(shape, (long) executions, Math::max);
+        }
+    }
+
+    long getStatements() {
+        return statements.sum();
+    }
+
+    Map<String, Object> toMap() {
+        long count = requests.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", count);
+        stats.put("statements", statements.sum());
+        stats.put("statementsPerRequest", count == 0 ? 0 : (double) statements.sum() / count);
+        stats.put("maxStatementsPerRequest", maxStatements.get());
+        stats.put("statementMillis", TimeUnit.NANOSECONDS.toMillis(statementNanos.sum()));
+        stats.put("slowStatements", slowStatements.sum());
+        stats.put("entityLoads", entityLoads.sum());
+        stats.put("collectionFetches", collectionFetches.sum());
+        stats.put("secondLevelCacheHits", cacheHits.sum());
+        stats.put("secondLevelCacheMisses", cacheMisses.sum());
+        stats.put("secondLevelCachePuts", cachePuts.sum());
+        stats.put("nPlusOneRequests", nPlusOneRequests.sum());
+        stats.put("repeatedStatements", new LinkedHashMap<>(repeatedShapes));
+        return stats;
+    }
+}
@@ -0,0 +1,38 @@
+package com.urbanfood.api.services.querystats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts entity loads and lazy collection fetches for {@link QueryStatsService}. Kept out
+ * of the service itself because the session factory is only built after the service has
+ * been handed to Hibernate as its statement inspector.
+ */
+@Component
+@ConditionalOnProperty(name = "app.hibernate.statistics.enabled", havingValue = "true")
+public class QueryStatsListenerRegistrar {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private QueryStatsService queryStatsService;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD,
+                (PostLoadEventListener) event -> queryStatsService.entityLoaded());
+        registry.appendListeners(EventType.INIT_COLLECTION,
+                (InitializeCollectionEventListener) event -> queryStatsService.collectionFetched());
+    }
+}
@@ -0,0 +1,246 @@
+package com.urbanfood.api.services.querystats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Per-endpoint view of what Hibernate does. Every statement Hibernate prepares passes
+ * through {@link #inspect}, execution is timed by {@link QueryStatsSessionListener}, and
+ * entity loads and collection fetches are reported by listeners on the session factory.
+ * While a request is open on the current thread its counts are collected and folded into
+ * its endpoint's totals when it ends. Fan-out lookups carry the request's scope onto their
+ * threads through {@link #propagate}; other work, such as scheduled jobs, is only seen by
+ * the slow-statement log.
+ * <p>
+ * Statements are reduced to a shape with literals replaced by {@code ?}, which is what the
+ * slow-statement log prints, so values never reach the logs. A request that runs the same
+ * SELECT shape more than the N+1 threshold is logged and counted against its endpoint.
+ */
+@Service
+public class QueryStatsService implements StatementInspector {
+    private static final Logger logger = LoggerFactory.getLogger(QueryStatsService.class);
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern PARAMETER_LIST = Pattern.compile(
+            "\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_SHAPE_CACHE = 2000;
+    private static final int MAX_ENDPOINTS = 1000;
+    private static final int MAX_LOGGED_LENGTH = 2000;
+
+    private static volatile QueryStatsService instance;
+
+    @Value("${app.hibernate.statistics.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.hibernate.slow-query-ms:200}")
+    private long slowQueryMs;
+
+    @Value("${app.hibernate.n-plus-one-threshold:10}")
+    private int nPlusOneThreshold;
+
+    private final ThreadLocal<RequestQueryStats> currentRequest = new ThreadLocal<>();
+    private final ThreadLocal<String> currentShape = new ThreadLocal<>();
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+    private final Map<String, EndpointQueryStats> endpoints = new ConcurrentHashMap<>();
+
+    /** The running service, for the session listeners Hibernate instantiates itself. */
+    static QueryStatsService instance() {
+        return instance;
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            instance = this;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        instance = null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void beginRequest() {
+        currentRequest.set(new RequestQueryStats());
+    }
+
+    /**
+     * Runs the task inside the calling thread's request scope, wherever it ends up executing.
+     * A lookup still running when its request ends reports into totals already folded in,
+     * so its remaining work is simply not counted.
+     */
+    public <T> Callable<T> propagate(Callable<T> task) {
+        RequestQueryStats request = currentRequest.get();
+        if (request == null) {
+            return task;
+        }
+        return () -> {
+            // Caller-runs executes the task on the request thread itself, whose scope is kept
+            RequestQueryStats previous = currentRequest.get();
+            currentRequest.set(request);
+            try {
+                return task.call();
+            } finally {
+                if (previous != null) {
+                    currentRequest.set(previous);
+                } else {
+                    currentRequest.remove();
+                    currentShape.remove();
+                }
+            }
+        };
+    }
+
+    public void endRequest(String endpoint) {
+        RequestQueryStats request = currentRequest.get();
+        currentRequest.remove();
+        currentShape.remove();
+        if (request == null) {
+            return;
+        }
+        EndpointQueryStats stats = endpoints.get(endpoint);
+        if (stats == null) {
+            // Endpoint keys are route patterns, so this only overflows if something is misrouted
+            stats = endpoints.size() < MAX_ENDPOINTS
+                    ? endpoints.computeIfAbsent(endpoint, key -> new EndpointQueryStats())
+                    : endpoints.computeIfAbsent("(other)", key -> new EndpointQueryStats());
+        }
+        stats.add(request);
+        for (Map.Entry<String, Integer> shape : request.selectShapes.entrySet()) {
+            if (shape.getValue() > nPlusOneThreshold) {
+                stats.nPlusOne(shape.getKey(), shape.getValue());
+                logger.warn("Possible N+1 in {}: {} executions of [{}]", endpoint, shape.getValue(),
+                        truncate(shape.getKey()));
+            }
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String shape = shapes.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (shapes.size() < MAX_SHAPE_CACHE) {
+                shapes.put(sql, shape);
+            }
+        }
+        currentShape.set(shape);
+        RequestQueryStats request = currentRequest.get();
+        if (request != null) {
+            request.statements.incrementAndGet();
+            if (shape.regionMatches(true, 0, "select", 0, 6) || shape.regionMatches(true, 0, "with", 0, 4)) {
+                request.select(shape);
+            }
+        }
+        return sql;
+    }
+
+    void statementExecuted(long nanos) {
+        RequestQueryStats request = currentRequest.get();
+        boolean slow = nanos >= TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+        if (request != null) {
+            request.statementNanos.addAndGet(nanos);
+            if (slow) {
+                request.slowStatements.incrementAndGet();
+            }
+        }
+        if (slow) {
+            logger.warn("Slow statement took {} ms: [{}]", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    truncate(currentShape.get()));
+        }
+    }
+
+    void entityLoaded() {
+        RequestQueryStats request = currentRequest.get();
+        if (request != null) {
+            request.entityLoads.incrementAndGet();
+        }
+    }
+
+    void collectionFetched() {
+        RequestQueryStats request = currentRequest.get();
+        if (request != null) {
+            request.collectionFetches.incrementAndGet();
+        }
+    }
+
+    void cacheGet(boolean hit) {
+        RequestQueryStats request = currentRequest.get();
+        if (request != null) {
+            if (hit) {
+                request.cacheHits.incrementAndGet();
+            } else {
+                request.cacheMisses.incrementAndGet();
+            }
+        }
+    }
+
+    void cachePut() {
+        RequestQueryStats request = currentRequest.get();
+        if (request != null) {
+            request.cachePuts.incrementAndGet();
+        }
+    }
+
+    /** Endpoints ordered by the number of statements they have issued, busiest first. */
+    public Map<String, Object> getEndpointStats() {
+        List<Map.Entry<String, EndpointQueryStats>> entries = new ArrayList<>(endpoints.entrySet());
+        entries.sort(Comparator.comparingLong(
+                (Map.Entry<String, EndpointQueryStats> entry) -> entry.getValue().getStatements()).reversed());
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Map.Entry<String, EndpointQueryStats> entry : entries) {
+            stats.put(entry.getKey(), entry.getValue().toMap());
+        }
+        return stats;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    public long getSlowQueryMs() {
+        return slowQueryMs;
+    }
+
+    public int getNPlusOneThreshold() {
+        return nPlusOneThreshold;
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        // IN lists of different lengths are the same query
+        return PARAMETER_LIST.matcher(shape).replaceAll("in (?...)");
+    }
+
+    private static String truncate(String shape) {
+        if (shape == null) {
+            return "";
+        }
+        return shape.length() > MAX_LOGGED_LENGTH ? shape.substring(0, MAX_LOGGED_LENGTH) + "..." : shape;
+    }
+}
@@ -0,0 +1,58 @@
+package com.urbanfood.api.services.querystats;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Times statement execution and counts second-level cache traffic. Hibernate creates one
+ * per session from its class name, and a session stays on one thread, so the start time
+ * needs no guarding.
+ */
+public class QueryStatsSessionListener implements SessionEventListener {
+    private static final long serialVersionUID = 1L;
+
+    private long executeStarted;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStarted = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        executed();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executeStarted = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        executed();
+    }
+
+    @Override
+    public void cacheGetEnd(boolean hit) {
+        QueryStatsService service = QueryStatsService.instance();
+        if (service != null) {
+            service.cacheGet(hit);
+        }
+    }
+
+    @Override
+    public void cachePutEnd() {
+        QueryStatsService service = QueryStatsService.instance();
+        if (service != null) {
+            service.cachePut();
+        }
+    }
+
+    private void executed() {
+        QueryStatsService service = QueryStatsService.instance();
+        if (service != null && executeStarted != 0) {
+            service.statementExecuted(System.nanoTime() - executeStarted);
+        }
+        executeStarted = 0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.urbanfood.api.services.querystats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What one request did against the database. Fan-out lookups forked by the request report
+ * into the same instance from their own threads, so every count is atomic.
+ */
+final class RequestQueryStats {
+    // Bounds the work for a request that issues an unusual number of distinct statements
+    private static final int MAX_SHAPES = 500;
+
+    final AtomicInteger statements = new AtomicInteger();
+    final AtomicLong statementNanos = new AtomicLong();
+    final AtomicInteger slowStatements = new AtomicInteger();
+    final AtomicInteger entityLoads = new AtomicInteger();
+    final AtomicInteger collectionFetches = new AtomicInteger();
+    final AtomicInteger cacheHits = new AtomicInteger();
+    final AtomicInteger cacheMisses = new AtomicInteger();
+    final AtomicInteger cachePuts = new AtomicInteger();
+    final Map<String, Integer> selectShapes = new ConcurrentHashMap<>();
+
+    void select(String shape) {
+        if (selectShapes.size() < MAX_SHAPES || selectShapes.containsKey(shape)) {
+            selectShapes.merge(shape, 1, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+CREATE TABLE IF NOT EXISTS roles (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(20)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) UNIQUE,
+    email VARCHAR(255) UNIQUE,
+    password VARCHAR(255),
+    full_name VARCHAR(255),
+    is_farmer BOOLEAN DEFAULT FALSE,
+    farm_name VARCHAR(255),
+    farm_description VARCHAR(255),
+    address VARCHAR(255),
+    city VARCHAR(255),
+    zip_code VARCHAR(255),
+    phone VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    role_id BIGINT NOT NULL REFERENCES roles (id),
+    PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(50),
+    description VARCHAR(500),
+    icon VARCHAR(50)
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255),
+    description VARCHAR(255),
+    price VARCHAR(255),
+    image_url VARCHAR(255),
+    category_id BIGINT,
+    farmer_id BIGINT,
+    unit VARCHAR(255),
+    organic BOOLEAN,
+    stock INTEGER,
+    featured BOOLEAN,
+    version BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    status VARCHAR(20),
+    user_id BIGINT REFERENCES users (id),
+    order_date TIMESTAMP,
+    total_amount DECIMAL(38, 2),
+    shipping_address VARCHAR(255),
+    contact_phone VARCHAR(20),
+    payment_method VARCHAR(50)
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id BIGINT REFERENCES orders (id),
+    product_id BIGINT REFERENCES products (id),
+    quantity INTEGER,
+    unit_price DECIMAL(38, 2)
+);
+
+CREATE TABLE IF NOT EXISTS farmer_daily_sales (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    farmer_id BIGINT NOT NULL,
+    sales_date DATE NOT NULL,
+    units BIGINT,
+    revenue DECIMAL(19, 2),
+    order_count BIGINT,
+    CONSTRAINT uk_farmer_daily_sales UNIQUE (farmer_id, sales_date)
+);
+
+CREATE TABLE IF NOT EXISTS product_daily_sales (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    farmer_id BIGINT,
+    sales_date DATE NOT NULL,
+    units BIGINT,
+    revenue DECIMAL(19, 2),
+    order_count BIGINT,
+    CONSTRAINT uk_product_daily_sales UNIQUE (product_id, sales_date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_daily_sales_farmer ON product_daily_sales (farmer_id, sales_date);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR(30) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    payload VARCHAR(4000),
+    created_at TIMESTAMP NOT NULL,
+    available_at TIMESTAMP NOT NULL,
+    attempts INTEGER DEFAULT 0 NOT NULL,
+    last_error VARCHAR(500)
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_available ON outbox_events (available_at, id);
+
+CREATE TABLE IF NOT EXISTS background_jobs (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    queue_name VARCHAR(40) NOT NULL,
+    job_type VARCHAR(60) NOT NULL,
+    payload VARCHAR(4000),
+    dedupe_key VARCHAR(100),
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER DEFAULT 0 NOT NULL,
+    max_attempts INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    available_at TIMESTAMP NOT NULL,
+    locked_by VARCHAR(64),
+    locked_until TIMESTAMP,
+    last_error VARCHAR(500),
+    CONSTRAINT uk_background_jobs_dedupe UNIQUE (dedupe_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_background_jobs_claim ON background_jobs (queue_name, status, available_at, id);
+
+MERGE INTO roles (id, name) KEY (id) VALUES (1, 'ROLE_USER'), (2, 'ROLE_FARMER'), (3, 'ROLE_ADMIN');
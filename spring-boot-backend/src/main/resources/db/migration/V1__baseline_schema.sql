@@ -0,0 +1,87 @@
+-- Baseline: the schema previously created by hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version and skip it.
+
+CREATE TABLE roles (
+    id NUMBER(19, 0) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR2(20 CHAR)
+);
+
+CREATE TABLE users (
+    id NUMBER(19, 0) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR2(255 CHAR),
+    email VARCHAR2(255 CHAR),
+    password VARCHAR2(255 CHAR),
+    full_name VARCHAR2(255 CHAR),
+    is_farmer NUMBER(1, 0),
+    farm_name VARCHAR2(255 CHAR),
+    farm_description VARCHAR2(255 CHAR),
+    address VARCHAR2(255 CHAR),
+    city VARCHAR2(255 CHAR),
+    zip_code VARCHAR2(255 CHAR),
+    phone VARCHAR2(255 CHAR),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+    user_id NUMBER(19, 0) NOT NULL,
+    role_id NUMBER(19, 0) NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+);
+
+CREATE TABLE categories (
+    id NUMBER(19, 0) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR2(50 CHAR),
+    description VARCHAR2(500 CHAR),
+    icon VARCHAR2(50 CHAR)
+);
+
+CREATE TABLE products (
+    id NUMBER(19, 0) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR2(255 CHAR),
+    description VARCHAR2(255 CHAR),
+    price VARCHAR2(255 CHAR),
+    image_url VARCHAR2(255 CHAR),
+    category_id NUMBER(19, 0),
+    farmer_id NUMBER(19, 0),
+    unit VARCHAR2(255 CHAR),
+    organic NUMBER(1, 0),
+    stock NUMBER(10, 0),
+    featured NUMBER(1, 0),
+    CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES categories (id)
+);
+
+CREATE INDEX idx_products_category ON products (category_id);
+CREATE INDEX idx_products_farmer ON products (farmer_id);
+
+CREATE TABLE orders (
+    id NUMBER(19, 0) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    status VARCHAR2(20 CHAR),
+    user_id NUMBER(19, 0),
+    order_date TIMESTAMP(6),
+    total_amount NUMBER(38, 2),
+    shipping_address VARCHAR2(255 CHAR),
+    contact_phone VARCHAR2(20 CHAR),
+    payment_method VARCHAR2(50 CHAR),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_orders_user ON orders (user_id);
+
+CREATE TABLE order_items (
+    id NUMBER(19, 0) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id NUMBER(19, 0),
+    product_id NUMBER(19, 0),
+    quantity NUMBER(10, 0),
+    unit_price NUMBER(38, 2),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE INDEX idx_order_items_order ON order_items (order_id);
+
+INSERT INTO roles (id, name) VALUES (1, 'ROLE_USER');
+INSERT INTO roles (id, name) VALUES (2, 'ROLE_FARMER');
+INSERT INTO roles (id, name) VALUES (3, 'ROLE_ADMIN');
@@ -0,0 +1,39 @@
+-- Databases baselined at V1 may already have these objects: ddl-auto created them from the
+-- entities before Flyway owned the schema. Each one is created only if it is missing.
+DECLARE
+    PROCEDURE create_if_missing(p_type VARCHAR2, p_name VARCHAR2, p_ddl VARCHAR2) IS
+        v_count NUMBER;
+    BEGIN
+        SELECT COUNT(*) INTO v_count FROM user_objects WHERE object_type = p_type AND object_name = p_name;
+        IF v_count = 0 THEN
+            EXECUTE IMMEDIATE p_ddl;
+        END IF;
+    END;
+BEGIN
+    create_if_missing('TABLE', 'FARMER_DAILY_SALES', '
+        CREATE TABLE farmer_daily_sales (
+            id NUMBER(19, 0) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+            farmer_id NUMBER(19, 0) NOT NULL,
+            sales_date DATE NOT NULL,
+            units NUMBER(19, 0),
+            revenue NUMBER(19, 2),
+            order_count NUMBER(19, 0),
+            CONSTRAINT uk_farmer_daily_sales UNIQUE (farmer_id, sales_date)
+        )');
+
+    create_if_missing('TABLE', 'PRODUCT_DAILY_SALES', '
+        CREATE TABLE product_daily_sales (
+            id NUMBER(19, 0) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+            product_id NUMBER(19, 0) NOT NULL,
+            farmer_id NUMBER(19, 0),
+            sales_date DATE NOT NULL,
+            units NUMBER(19, 0),
+            revenue NUMBER(19, 2),
+            order_count NUMBER(19, 0),
+            CONSTRAINT uk_product_daily_sales UNIQUE (product_id, sales_date)
+        )');
+
+    create_if_missing('INDEX', 'IDX_PRODUCT_DAILY_SALES_FARMER',
+        'CREATE INDEX idx_product_daily_sales_farmer ON product_daily_sales (farmer_id, sales_date)');
+END;
+/
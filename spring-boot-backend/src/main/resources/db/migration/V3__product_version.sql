@@ -0,0 +1,2 @@
+-- Optimistic locking for products; a defaulted NOT NULL column is added without rewriting rows
+ALTER TABLE products ADD (version NUMBER(19, 0) DEFAULT 0 NOT NULL);
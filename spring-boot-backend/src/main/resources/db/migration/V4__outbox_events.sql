@@ -0,0 +1,13 @@
+CREATE TABLE outbox_events (
+    id NUMBER(19, 0) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR2(30 CHAR) NOT NULL,
+    aggregate_id NUMBER(19, 0) NOT NULL,
+    event_type VARCHAR2(40 CHAR) NOT NULL,
+    payload VARCHAR2(4000 CHAR),
+    created_at TIMESTAMP NOT NULL,
+    available_at TIMESTAMP NOT NULL,
+    attempts NUMBER(10, 0) DEFAULT 0 NOT NULL,
+    last_error VARCHAR2(500 CHAR)
+);
+
+CREATE INDEX idx_outbox_events_available ON outbox_events (available_at, id);
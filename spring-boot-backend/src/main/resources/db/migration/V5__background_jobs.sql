@@ -0,0 +1,18 @@
+CREATE TABLE background_jobs (
+    id NUMBER(19, 0) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    queue_name VARCHAR2(40 CHAR) NOT NULL,
+    job_type VARCHAR2(60 CHAR) NOT NULL,
+    payload VARCHAR2(4000 CHAR),
+    dedupe_key VARCHAR2(100 CHAR),
+    status VARCHAR2(20 CHAR) NOT NULL,
+    attempts NUMBER(10, 0) DEFAULT 0 NOT NULL,
+    max_attempts NUMBER(10, 0) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    available_at TIMESTAMP NOT NULL,
+    locked_by VARCHAR2(64 CHAR),
+    locked_until TIMESTAMP,
+    last_error VARCHAR2(500 CHAR),
+    CONSTRAINT uk_background_jobs_dedupe UNIQUE (dedupe_key)
+);
+
+CREATE INDEX idx_background_jobs_claim ON background_jobs (queue_name, status, available_at, id);
@@ -0,0 +1,143 @@
+package com.urbanfood.api.config;
+
+import com.urbanfood.api.services.FanOut;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test for product enrichment: many concurrent requests, each needing an Oracle
+ * lookup and a Mongo lookup, simulated as blocking waits of typical latency. Compares
+ * sequential lookups, the fan-out on the bounded platform pool, and (on Java 21+) virtual
+ * request threads with virtual fan-out. Run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class FanOutLoadTest {
+    private static final long ORACLE_MS = 10;
+    private static final long MONGO_MS = 25;
+    private static final int REQUESTS = 4000;
+    // Tomcat's default maxThreads
+    private static final int REQUEST_THREADS = 200;
+
+    @Test
+    void fanOutCutsLatencyBelowSaturation() throws Exception {
+        Result[] results = compareModes(32);
+        assertThat(results[1].p50Ms()).isLessThan(results[0].p50Ms());
+    }
+
+    @Test
+    void fanOutKeepsThroughputWhenRequestThreadsAreSaturated() throws Exception {
+        Result[] results = compareModes(2 * REQUEST_THREADS);
+        assertThat(results[1].requestsPerSecond()).isGreaterThan(0.9 * results[0].requestsPerSecond());
+    }
+
+    private static Result[] compareModes(int concurrency) throws InterruptedException {
+        System.out.println("concurrency " + concurrency + ", " + REQUESTS + " requests");
+        Result sequential = run("platform, sequential", concurrency, fixedPool(REQUEST_THREADS), null);
+        Result platform = run("platform, fan-out", concurrency, fixedPool(REQUEST_THREADS), boundedLookupPool());
+        System.out.println(sequential);
+        System.out.println(platform);
+
+        ExecutorService virtualThreads = virtualThreads();
+        if (virtualThreads != null) {
+            System.out.println(run("virtual, fan-out", concurrency, virtualThreads, virtualThreads()));
+        } else {
+            System.out.println("virtual, fan-out: skipped, needs Java 21+");
+        }
+        return new Result[] {sequential, platform};
+    }
+
+    private static Result run(String mode, int concurrency, ExecutorService requestThreads,
+                              ExecutorService lookupThreads) throws InterruptedException {
+        FanOut fanOut = lookupThreads != null ? new FanOut(lookupThreads, Duration.ofSeconds(10)) : null;
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+
+        long started = System.nanoTime();
+        // A closed loop: each client sends its next request when the last one returns
+        for (int client = 0; client < concurrency; client++) {
+            submitNext(requestThreads, fanOut, latencies, next, done);
+        }
+        done.await();
+        long elapsed = System.nanoTime() - started;
+
+        requestThreads.shutdownNow();
+        if (lookupThreads != null) {
+            lookupThreads.shutdownNow();
+        }
+        Arrays.sort(latencies);
+        return new Result(mode, REQUESTS * 1e9 / elapsed, latencies[REQUESTS / 2] / 1_000_000,
+                latencies[REQUESTS * 99 / 100] / 1_000_000);
+    }
+
+    private static void submitNext(ExecutorService requestThreads, FanOut fanOut, long[] latencies,
+                                   AtomicInteger next, CountDownLatch done) {
+        int request = next.getAndIncrement();
+        if (request >= REQUESTS) {
+            return;
+        }
+        long queued = System.nanoTime();
+        requestThreads.execute(() -> {
+            handle(fanOut);
+            latencies[request] = System.nanoTime() - queued;
+            done.countDown();
+            submitNext(requestThreads, fanOut, latencies, next, done);
+        });
+    }
+
+    // Mirrors ProductDtoService.toDto: Mongo forked, Oracle on the request thread
+    private static void handle(FanOut fanOut) {
+        if (fanOut == null) {
+            sleep(ORACLE_MS);
+            sleep(MONGO_MS);
+            return;
+        }
+        try (FanOut.Scope scope = fanOut.open()) {
+            scope.fork(() -> sleep(MONGO_MS));
+            sleep(ORACLE_MS);
+            scope.join();
+        }
+    }
+
+    private static Object sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static ExecutorService fixedPool(int threads) {
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    // ConcurrencyConfig's defaults
+    private static ExecutorService boundedLookupPool() {
+        return ConcurrencyConfig.boundedLookupPool(32, 0);
+    }
+
+    private static ExecutorService virtualThreads() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private record Result(String mode, double requestsPerSecond, long p50Ms, long p99Ms) {
+        @Override
+        public String toString() {
+            return String.format("%-22s %8.0f req/s   p50 %4d ms   p99 %4d ms", mode, requestsPerSecond, p50Ms, p99Ms);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.urbanfood.api.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaHealthMonitor healthMonitor;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        healthMonitor = new ReplicaHealthMonitor(replica, "", 5000);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(inTransaction(routing(replica), true)).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimary() {
+        assertThat(inTransaction(routing(replica), false)).isEqualTo("primary");
+    }
+
+    @Test
+    void workOutsideATransactionUsesThePrimary() {
+        assertThat(new JdbcTemplate(routing(replica)).queryForObject("SELECT name FROM marker", String.class))
+                .isEqualTo("primary");
+    }
+
+    @Test
+    void unhealthyReplicaSendsReadsToThePrimary() {
+        healthMonitor.markUnavailable();
+        assertThat(inTransaction(routing(replica), true)).isEqualTo("primary");
+    }
+
+    @Test
+    void failedReplicaConnectionFallsBackToThePrimary() throws SQLException {
+        DataSource broken = mock(DataSource.class);
+        when(broken.getConnection()).thenThrow(new SQLException("replica down"));
+
+        assertThat(inTransaction(routing(broken), true)).isEqualTo("primary");
+        assertThat(healthMonitor.isReplicaUsable()).isFalse();
+    }
+
+    private DataSource routing(DataSource replicaTarget) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicaTarget, healthMonitor));
+    }
+
+    private static String inTransaction(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    // Each database records its own name, so a query shows which pool served it
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE marker (name VARCHAR(20))");
+        new JdbcTemplate(dataSource).update("INSERT INTO marker VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,132 @@
+package com.urbanfood.api.filters;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-request cost of rate limiting: the bare CAS on one bucket, the same under contention,
+ * and the whole filter (rule match, client key, bucket lookup) on an allowed request.
+ * Run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class RateLimitBenchmarkTest {
+    private static final int WARMUP = 2_000_000;
+    private static final int ITERATIONS = 5_000_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void tokenBucketConsumeIsSubMicrosecond() {
+        // Refills far faster than it is drained, so every call takes the successful CAS path
+        TokenBucket bucket = new TokenBucket(TokenBucket.MAX_CAPACITY, 1e9, System.currentTimeMillis());
+        double nanos = measure(() -> bucket.tryConsume(System.currentTimeMillis()));
+        System.out.printf("TokenBucket.tryConsume, 1 thread:  %6.1f ns/op%n", nanos);
+        assertThat(nanos).isLessThan(1000);
+    }
+
+    @Test
+    void contendedTokenBucketConsumeIsSubMicrosecond() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(TokenBucket.MAX_CAPACITY, 1e9, System.currentTimeMillis());
+        int threads = 4;
+        AtomicLong sink = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long sum = 0;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    sum += bucket.tryConsume(System.currentTimeMillis());
+                }
+                sink.addAndGet(sum);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double nanos = (double) (System.nanoTime() - started) / ITERATIONS / threads;
+        System.out.printf("TokenBucket.tryConsume, %d threads: %6.1f ns/op (wall clock per call, sink %d)%n",
+                threads, nanos, sink.get());
+        assertThat(nanos).isLessThan(1000);
+    }
+
+    @Test
+    void filterOverheadIsSubMicrosecond() throws Exception {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRules().add(rule("/api/auth/signin", "POST"));
+        properties.getRules().add(rule("/api/auth/signup", "POST"));
+        properties.getRules().add(rule("/api/products/search", "GET"));
+        RateLimitFilter filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "properties", properties);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/search");
+        request.setServletPath("/api/products/search");
+        request.setRemoteAddr("203.0.113.7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> { };
+
+        double nanos = measure(() -> {
+            try {
+                filter.doFilterInternal(request, response, chain);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return response.getStatus();
+        });
+        System.out.printf("RateLimitFilter, allowed request:  %6.1f ns/op%n", nanos);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(nanos).isLessThan(1000);
+    }
+
+    private static RateLimitProperties.Rule rule(String path, String method) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setPath(path);
+        rule.setMethod(method);
+        rule.setCapacity(TokenBucket.MAX_CAPACITY);
+        rule.setRefillPerSecond(1e9);
+        return rule;
+    }
+
+    /** Best of several rounds, in nanoseconds per call. */
+    private static double measure(Operation operation) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += operation.run();
+        }
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += operation.run();
+            }
+            best = Math.min(best, (double) (System.nanoTime() - started) / ITERATIONS);
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        return best;
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        long run();
+    }
+}
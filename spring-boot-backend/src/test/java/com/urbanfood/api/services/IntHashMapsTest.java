@@ -0,0 +1,101 @@
+package com.urbanfood.api.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntHashMapsTest {
+    private static final int KEYS = 2_000;
+    private static final int OPERATIONS = 200_000;
+
+    @Test
+    void intObjectHashMapMatchesHashMapUnderPutsAndRemoves() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < OPERATIONS; i++) {
+            int key = random.nextInt(KEYS);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (int key = 0; key < KEYS; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+
+    @Test
+    void intIntHashMapMatchesHashMapUnderAddsAndRemoves() {
+        IntIntHashMap map = new IntIntHashMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < OPERATIONS; i++) {
+            int key = random.nextInt(KEYS);
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.addTo(key, 1);
+                expected.merge(key, 1, Integer::sum);
+            }
+        }
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (int key = 0; key < KEYS; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, 0));
+        }
+    }
+
+    @Test
+    void concurrentIntObjectMapMatchesHashMapUnderPutsAndRemoves() {
+        ConcurrentIntObjectMap<Integer> map = new ConcurrentIntObjectMap<>(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(13);
+        for (int i = 0; i < OPERATIONS; i++) {
+            int key = random.nextInt(KEYS);
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (int key = 0; key < KEYS; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+
+    @Test
+    void concurrentIntObjectMapReadersNeverSeeAWrongValueWhileItGrows() throws InterruptedException {
+        ConcurrentIntObjectMap<Integer> map = new ConcurrentIntObjectMap<>(4);
+        int[] wrong = new int[1];
+        Thread reader = new Thread(() -> {
+            SplittableRandom random = new SplittableRandom(17);
+            for (int i = 0; i < OPERATIONS * 10; i++) {
+                int key = random.nextInt(KEYS * 10);
+                Integer value = map.get(key);
+                if (value != null && value != key) {
+                    wrong[0]++;
+                }
+            }
+        });
+        reader.start();
+        for (int key = 0; key < KEYS * 10; key++) {
+            map.put(key, key);
+            if (key % 3 == 0) {
+                map.remove(key / 2);
+            }
+        }
+        reader.join();
+        assertThat(wrong[0]).isZero();
+    }
+}
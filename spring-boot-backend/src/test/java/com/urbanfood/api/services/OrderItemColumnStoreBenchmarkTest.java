@@ -0,0 +1,112 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.OrderItemAggregateResponse;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Aggregation time over 10M synthetic order items, on one core and on every available core.
+ * Run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class OrderItemColumnStoreBenchmarkTest {
+    private static final int ROWS = 10_000_000;
+    private static final int ROUNDS = 5;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 1, 1);
+
+    private static List<OrderItemColumnStore.Segment> segments;
+    private static OrderItemColumnStore oneCore;
+    private static OrderItemColumnStore allCores;
+
+    @BeforeAll
+    static void load() {
+        SplittableRandom random = new SplittableRandom(42);
+        segments = new ArrayList<>();
+        OrderItemColumnStore.Segment tail = new OrderItemColumnStore.Segment();
+        segments.add(tail);
+        for (int i = 0; i < ROWS; i++) {
+            if (tail.isFull()) {
+                tail = new OrderItemColumnStore.Segment();
+                segments.add(tail);
+            }
+            int productId = random.nextInt(1, 20_001);
+            tail.append(productId, productId % 500 + 1, productId % 40 + 1, productId % 3 == 0,
+                    random.nextInt(1, 10), random.nextLong(50, 5_000), FIRST_DAY.plusDays(random.nextInt(730)));
+        }
+        oneCore = new OrderItemColumnStore(1);
+        oneCore.install(segments, Set.of());
+        allCores = new OrderItemColumnStore(0);
+        allCores.install(segments, Set.of());
+    }
+
+    @AfterAll
+    static void shutdown() {
+        oneCore.shutdown();
+        allCores.shutdown();
+    }
+
+    @Test
+    void totalRevenueIsWellUnderASecondOnOneCore() {
+        measure("total", new OrderItemColumnStore.Filter(null, null, null, null, null),
+                OrderItemColumnStore.GroupBy.NONE);
+    }
+
+    @Test
+    void revenueByCategoryIsWellUnderASecondOnOneCore() {
+        measure("by category", new OrderItemColumnStore.Filter(null, null, null, null, null),
+                OrderItemColumnStore.GroupBy.CATEGORY);
+    }
+
+    @Test
+    void organicShareForOneYearIsWellUnderASecondOnOneCore() {
+        measure("organic, one year", new OrderItemColumnStore.Filter(FIRST_DAY, FIRST_DAY.plusYears(1), null, null, null),
+                OrderItemColumnStore.GroupBy.ORGANIC);
+    }
+
+    @Test
+    void monthlyRevenueForOneFarmerIsWellUnderASecondOnOneCore() {
+        measure("one farmer by month", new OrderItemColumnStore.Filter(null, null, null, 7L, null),
+                OrderItemColumnStore.GroupBy.MONTH);
+    }
+
+    @Test
+    void revenueByProductIsWellUnderASecondOnOneCore() {
+        measure("by product", new OrderItemColumnStore.Filter(null, null, null, null, null),
+                OrderItemColumnStore.GroupBy.PRODUCT);
+    }
+
+    private static void measure(String label, OrderItemColumnStore.Filter filter,
+                                OrderItemColumnStore.GroupBy groupBy) {
+        long single = best(oneCore, filter, groupBy);
+        long parallel = best(allCores, filter, groupBy);
+        System.out.printf("%-20s 1 core: %5d ms   %d cores: %5d ms%n", label, single,
+                Runtime.getRuntime().availableProcessors(), parallel);
+        assertThat(single).isLessThan(1000);
+    }
+
+    private static long best(OrderItemColumnStore store, OrderItemColumnStore.Filter filter,
+                             OrderItemColumnStore.GroupBy groupBy) {
+        long best = Long.MAX_VALUE;
+        // The first round warms up the JIT
+        for (int round = 0; round <= ROUNDS; round++) {
+            long started = System.nanoTime();
+            OrderItemAggregateResponse response = store.aggregate(filter, groupBy, 10);
+            long elapsed = (System.nanoTime() - started) / 1_000_000;
+            assertThat(response.getRowsScanned()).isEqualTo(ROWS);
+            if (round > 0) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,78 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.OrderItemAggregateResponse;
+import com.urbanfood.api.events.OrderPlacedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderItemColumnStoreTest {
+    private static final long BEYOND_INT = Integer.MAX_VALUE + 1L;
+
+    private OrderItemColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new OrderItemColumnStore(1);
+        ReflectionTestUtils.setField(store, "enabled", true);
+        store.install(new ArrayList<>(List.of(new OrderItemColumnStore.Segment())), Set.of());
+        store.onOrderPlaced(order(1L, new OrderPlacedEvent.Line(10L, 20L, 30L, true, 2, new BigDecimal("1.50"))));
+        store.onOrderPlaced(order(2L, new OrderPlacedEvent.Line(BEYOND_INT, BEYOND_INT, 30L, false, 1,
+                new BigDecimal("4.00"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void filterOnIdBeyondIntRangeMatchesNothing() {
+        OrderItemAggregateResponse response = store.aggregate(
+                new OrderItemColumnStore.Filter(null, null, null, BEYOND_INT, null),
+                OrderItemColumnStore.GroupBy.NONE, 10);
+
+        assertThat(response.getRowsScanned()).isEqualTo(2);
+        assertThat(response.getRowsMatched()).isZero();
+        assertThat(response.getGroups()).isEmpty();
+    }
+
+    @Test
+    void rowsWithIdsBeyondIntRangeAreGroupedSeparately() {
+        OrderItemAggregateResponse response = store.aggregate(
+                new OrderItemColumnStore.Filter(null, null, null, null, null),
+                OrderItemColumnStore.GroupBy.FARMER, 10);
+
+        assertThat(response.getGroups()).extracting("key").containsExactly("out-of-range", "20");
+        assertThat(response.getGroups().get(0).getRevenue()).isEqualByComparingTo("4.00");
+    }
+
+    @Test
+    void orderPlacedDuringLoadIsKeptUnlessTheScanReadIt() {
+        OrderItemColumnStore loading = new OrderItemColumnStore(1);
+        ReflectionTestUtils.setField(loading, "enabled", true);
+        try {
+            // Order 1 committed after the scan had passed its id, order 2 was read by the scan
+            loading.onOrderPlaced(order(1L, new OrderPlacedEvent.Line(10L, 20L, 30L, true, 2, new BigDecimal("1.50"))));
+            loading.onOrderPlaced(order(2L, new OrderPlacedEvent.Line(11L, 20L, 30L, true, 1, new BigDecimal("3.00"))));
+            loading.install(new ArrayList<>(List.of(new OrderItemColumnStore.Segment())), Set.of(2L));
+
+            assertThat(loading.rowCount()).isEqualTo(1);
+        } finally {
+            loading.shutdown();
+        }
+    }
+
+    private OrderPlacedEvent order(Long orderId, OrderPlacedEvent.Line line) {
+        return new OrderPlacedEvent(this, orderId, 1L, LocalDateTime.of(2024, 5, 1, 12, 0), List.of(line));
+    }
+}
@@ -0,0 +1,107 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.RelatedProductDto;
+import com.urbanfood.api.events.CatalogChangedEvent;
+import com.urbanfood.api.events.OrderPlacedEvent;
+import com.urbanfood.api.repositories.oracle.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RelatedProductsServiceTest {
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private RelatedProductsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RelatedProductsService(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "productRepository", productRepository);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "topK", 20);
+        ReflectionTestUtils.setField(service, "maxProductsPerOrder", 50);
+        ReflectionTestUtils.setField(service, "loaded", true);
+
+        service.onOrderPlaced(order(1L, 1L, 2L));
+        service.onOrderPlaced(order(2L, 1L, 2L, 3L));
+        service.onOrderPlaced(order(3L, 2L, 4L));
+    }
+
+    @Test
+    void deletedProductIsDroppedFromEveryNeighbourList() {
+        when(productRepository.existsById(2L)).thenReturn(false);
+
+        service.onCatalogChanged(CatalogChangedEvent.product(this, 2L));
+
+        assertThat(service.getRelated(2L, 10)).isEmpty();
+        assertThat(ids(service.getRelated(1L, 10))).containsExactly(3L);
+        assertThat(ids(service.getRelated(3L, 10))).containsExactly(1L);
+        // 4 was only ever bought with 2
+        assertThat(service.getRelated(4L, 10)).isEmpty();
+    }
+
+    @Test
+    void updatedProductKeepsItsNeighbours() {
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        service.onCatalogChanged(CatalogChangedEvent.product(this, 1L));
+
+        assertThat(ids(service.getRelated(1L, 10))).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void productWithoutCoPurchasesIsNotLookedUp() {
+        service.onCatalogChanged(CatalogChangedEvent.product(this, 99L));
+
+        verify(productRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void productIdBeyondIntRangeIsLeftOutOfTheBasket() {
+        service.onOrderPlaced(order(4L, 5L, Integer.MAX_VALUE + 1L, 6L));
+
+        assertThat(ids(service.getRelated(5L, 10))).containsExactly(6L);
+        assertThat(service.getRelated(Integer.MAX_VALUE + 1L, 10)).isEmpty();
+    }
+
+    @Test
+    void orderPlacedDuringLoadIsCountedUnlessTheScanReadIt() {
+        RelatedProductsService loading = new RelatedProductsService(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(loading, "enabled", true);
+        ReflectionTestUtils.setField(loading, "topK", 20);
+        ReflectionTestUtils.setField(loading, "maxProductsPerOrder", 50);
+
+        // Order 1 committed after the scan had passed its id, order 2 was read by the scan
+        loading.onOrderPlaced(order(1L, 7L, 8L));
+        loading.onOrderPlaced(order(2L, 7L, 9L));
+        ReflectionTestUtils.invokeMethod(loading, "finishLoad", Set.of(2L));
+
+        assertThat(ids(loading.getRelated(7L, 10))).containsExactly(8L);
+    }
+
+    private OrderPlacedEvent order(Long orderId, Long... productIds) {
+        List<OrderPlacedEvent.Line> lines = new ArrayList<>();
+        for (Long productId : productIds) {
+            lines.add(new OrderPlacedEvent.Line(productId, null, null, false, 1, BigDecimal.ONE));
+        }
+        return new OrderPlacedEvent(this, orderId, 1L, LocalDateTime.of(2024, 5, 1, 12, 0), lines);
+    }
+
+    private static List<Long> ids(List<RelatedProductDto> related) {
+        return related.stream().map(RelatedProductDto::getProductId).toList();
+    }
+}
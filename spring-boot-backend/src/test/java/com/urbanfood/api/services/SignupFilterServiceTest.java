@@ -0,0 +1,62 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.events.UserRegisteredEvent;
+import com.urbanfood.api.repositories.oracle.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SignupFilterServiceTest {
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private SignupFilterService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SignupFilterService(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(service, "minExpectedUsers", 1000L);
+        ReflectionTestUtils.setField(service, "growthFactor", 2.0);
+        when(userRepository.existsByUsername(anyString())).thenReturn(true);
+    }
+
+    @Test
+    void registrationDuringRebuildSurvivesTheSwap() {
+        when(userRepository.streamUsernamesAndEmails()).thenReturn(Stream.<Object[]>of(
+                new Object[] {"alice", "alice@x.io"}));
+        service.rebuild();
+
+        // Committed after the stream's snapshot, so only the listener can add it
+        when(userRepository.streamUsernamesAndEmails()).thenAnswer(invocation -> {
+            service.onUserRegistered(new UserRegisteredEvent(this, 2L, "bob", "bob@x.io", false, null, null));
+            return Stream.<Object[]>of(new Object[] {"alice", "alice@x.io"});
+        });
+        service.rebuild();
+
+        assertThat(service.isUsernameTaken("Bob")).isTrue();
+        assertThat(service.isUsernameTaken("alice")).isTrue();
+        verify(userRepository).existsByUsername("Bob");
+    }
+
+    @Test
+    void freeNameSkipsTheDatabase() {
+        when(userRepository.streamUsernamesAndEmails()).thenReturn(Stream.<Object[]>of(
+                new Object[] {"alice", "alice@x.io"}));
+        service.rebuild();
+
+        assertThat(service.isUsernameTaken("carol")).isFalse();
+        verify(userRepository, never()).existsByUsername("carol");
+    }
+}
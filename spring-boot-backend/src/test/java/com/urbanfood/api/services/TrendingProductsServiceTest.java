@@ -0,0 +1,73 @@
+package com.urbanfood.api.services;
+
+import com.urbanfood.api.dto.TrendingProductDto;
+import com.urbanfood.api.events.CatalogChangedEvent;
+import com.urbanfood.api.models.oracle.Product;
+import com.urbanfood.api.repositories.oracle.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrendingProductsServiceTest {
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private TrendingProductsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TrendingProductsService(mock(PlatformTransactionManager.class),
+                4096, 50, 1024, 1, 5, 3600000, 5000);
+        ReflectionTestUtils.setField(service, "productRepository", productRepository);
+        for (int i = 0; i < 3; i++) {
+            service.recordView(1L);
+        }
+        service.recordView(2L);
+        service.merge();
+    }
+
+    @Test
+    void deletedProductLeavesTheListAndStaysOut() {
+        when(productRepository.findAllById(any())).thenReturn(List.of());
+
+        service.onCatalogChanged(CatalogChangedEvent.product(this, 2L));
+        assertThat(ids(service.getTrending(10))).containsExactly(1L);
+
+        // A view recorded just before the delete must not bring it back
+        service.recordView(2L);
+        service.merge();
+        assertThat(ids(service.getTrending(10))).containsExactly(1L);
+    }
+
+    @Test
+    void deletedCategoryChecksEveryTrendingProduct() {
+        Product kept = new Product();
+        kept.setId(1L);
+        when(productRepository.findAllById(any())).thenReturn(List.of(kept));
+
+        service.onCatalogChanged(CatalogChangedEvent.category(this, 9L));
+
+        assertThat(ids(service.getTrending(10))).containsExactly(1L);
+    }
+
+    @Test
+    void productOutsideTheListIsNotLookedUp() {
+        service.onCatalogChanged(CatalogChangedEvent.product(this, 99L));
+
+        verify(productRepository, never()).findAllById(any());
+        assertThat(ids(service.getTrending(10))).containsExactly(1L, 2L);
+    }
+
+    private static List<Long> ids(List<TrendingProductDto> trending) {
+        return trending.stream().map(TrendingProductDto::getProductId).toList();
+    }
+}
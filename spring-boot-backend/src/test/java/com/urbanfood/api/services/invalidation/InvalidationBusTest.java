@@ -0,0 +1,148 @@
+package com.urbanfood.api.services.invalidation;
+
+import com.urbanfood.api.events.CatalogChangedEvent;
+import com.urbanfood.api.events.UserRegisteredEvent;
+import com.urbanfood.api.models.oracle.User;
+import com.urbanfood.api.repositories.oracle.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class InvalidationBusTest {
+    private static final long MILLIS = 1L << HybridLogicalClock.LOGICAL_BITS;
+
+    private final String channel = UUID.randomUUID().toString();
+
+    private final ApplicationEventPublisher localEvents = mock(ApplicationEventPublisher.class);
+    private final ApplicationEventPublisher peerEvents = mock(ApplicationEventPublisher.class);
+    private final UserRepository peerUsers = mock(UserRepository.class);
+    private final PlatformTransactionManager peerTransactions = mock(PlatformTransactionManager.class);
+
+    private InvalidationBus local;
+    private InvalidationBus peer;
+
+    @BeforeEach
+    void setUp() {
+        local = bus(localEvents, mock(UserRepository.class), mock(PlatformTransactionManager.class));
+        peer = bus(peerEvents, peerUsers, peerTransactions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        local.stop();
+        peer.stop();
+    }
+
+    @Test
+    void committedChangeIsReplayedOnPeersOnly() {
+        local.onCatalogChanged(CatalogChangedEvent.product(this, 5L));
+        local.flush();
+
+        ArgumentCaptor<CatalogChangedEvent> replayed = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+        verify(peerEvents).publishEvent(replayed.capture());
+        assertThat(replayed.getValue().isRemote()).isTrue();
+        assertThat(replayed.getValue().getEntityType()).isEqualTo(CatalogChangedEvent.EntityType.PRODUCT);
+        assertThat(replayed.getValue().getEntityId()).isEqualTo(5L);
+        // The loopback delivers to the sender as well, which ignores its own batch
+        verifyNoInteractions(localEvents);
+        assertThat(local.getStats().get("received")).isEqualTo(0L);
+    }
+
+    @Test
+    void replayedChangeIsNotBroadcastAgain() {
+        local.onCatalogChanged(CatalogChangedEvent.product(this, 5L));
+        local.flush();
+
+        ArgumentCaptor<CatalogChangedEvent> replayed = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+        verify(peerEvents).publishEvent(replayed.capture());
+        peer.onCatalogChanged(replayed.getValue());
+        peer.onUserRegistered(new UserRegisteredEvent(this, 7L, "u", "u@x.io", false, null, null, true));
+        peer.flush();
+
+        assertThat(peer.getStats().get("sent")).isEqualTo(0L);
+        verifyNoInteractions(localEvents);
+    }
+
+    @Test
+    void versionOlderThanTheSkewIsSuperseded() {
+        long latest = System.currentTimeMillis() * MILLIS;
+        peer.receive(batch(new Invalidation(Invalidation.EntityType.PRODUCT, 5L, latest)));
+        // Within the allowed skew the message may still describe a change not yet reloaded
+        peer.receive(batch(new Invalidation(Invalidation.EntityType.PRODUCT, 5L, latest - 500 * MILLIS)));
+        peer.receive(batch(new Invalidation(Invalidation.EntityType.PRODUCT, 5L, latest - 1500 * MILLIS)));
+        peer.receive(batch(new Invalidation(Invalidation.EntityType.PRODUCT, 6L, latest - 1500 * MILLIS)));
+
+        assertThat(peer.getStats().get("applied")).isEqualTo(3L);
+        assertThat(peer.getStats().get("superseded")).isEqualTo(1L);
+    }
+
+    @Test
+    void userIsReReadFromThePrimary() {
+        User user = new User("farmer", "farmer@x.io", "secret", "Farmer", true);
+        user.setId(7L);
+        when(peerUsers.findById(7L)).thenReturn(Optional.of(user));
+
+        peer.receive(batch(new Invalidation(Invalidation.EntityType.USER, 7L, System.currentTimeMillis() * MILLIS)));
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        var order = inOrder(peerTransactions, peerUsers);
+        order.verify(peerTransactions).getTransaction(definition.capture());
+        order.verify(peerUsers).findById(7L);
+        assertThat(definition.getValue().isReadOnly()).isFalse();
+        assertThat(definition.getValue().getPropagationBehavior())
+                .isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        ArgumentCaptor<UserRegisteredEvent> replayed = ArgumentCaptor.forClass(UserRegisteredEvent.class);
+        verify(peerEvents).publishEvent(replayed.capture());
+        assertThat(replayed.getValue().isRemote()).isTrue();
+        assertThat(replayed.getValue().isFarmer()).isTrue();
+    }
+
+    @Test
+    void missingUserPublishesNothing() {
+        when(peerUsers.findById(7L)).thenReturn(Optional.empty());
+
+        peer.receive(batch(new Invalidation(Invalidation.EntityType.USER, 7L, System.currentTimeMillis() * MILLIS)));
+
+        verify(peerEvents, never()).publishEvent(any());
+    }
+
+    private InvalidationBus bus(ApplicationEventPublisher events, UserRepository users,
+                                PlatformTransactionManager transactionManager) {
+        LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+        ReflectionTestUtils.setField(transport, "channel", channel);
+
+        InvalidationBus bus = new InvalidationBus(transactionManager);
+        ReflectionTestUtils.setField(bus, "transport", transport);
+        ReflectionTestUtils.setField(bus, "eventPublisher", events);
+        ReflectionTestUtils.setField(bus, "userRepository", users);
+        ReflectionTestUtils.setField(bus, "maxBatchSize", 500);
+        ReflectionTestUtils.setField(bus, "maxQueued", 100000);
+        ReflectionTestUtils.setField(bus, "versionRetentionMs", 600000L);
+        ReflectionTestUtils.setField(bus, "maxClockSkewMs", 1000L);
+        bus.start();
+        return bus;
+    }
+
+    private static InvalidationBatch batch(Invalidation... entries) {
+        return new InvalidationBatch("some-other-instance", List.of(entries));
+    }
+}
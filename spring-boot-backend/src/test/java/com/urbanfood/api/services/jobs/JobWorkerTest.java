@@ -0,0 +1,270 @@
+package com.urbanfood.api.services.jobs;
+
+import com.urbanfood.api.models.oracle.BackgroundJob;
+import com.urbanfood.api.repositories.oracle.BackgroundJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the queue against the local profile's H2 schema, so the claim SQL, the conditional
+ * updates and the dedupe constraint are exercised for real.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=none"
+})
+@ActiveProfiles("local")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JobWorkerTest {
+    private static final long INITIAL_BACKOFF_MS = 5000;
+
+    @Autowired
+    private BackgroundJobRepository backgroundJobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private JobService jobService;
+    private JobWorker worker;
+    private final List<String> handled = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        backgroundJobRepository.deleteAll();
+        transaction = new TransactionTemplate(transactionManager);
+
+        jobService = new JobService(transactionManager);
+        ReflectionTestUtils.setField(jobService, "backgroundJobRepository", backgroundJobRepository);
+        ReflectionTestUtils.setField(jobService, "maxAttempts", 2);
+
+        worker = new JobWorker(transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(worker, "backgroundJobRepository", backgroundJobRepository);
+        ReflectionTestUtils.setField(worker, "handlerBeans", List.of(handler("ok", false), handler("broken", true)));
+        ReflectionTestUtils.setField(worker, "enabled", true);
+        ReflectionTestUtils.setField(worker, "queueSpec", "default:2");
+        ReflectionTestUtils.setField(worker, "claimBatchSize", 20);
+        ReflectionTestUtils.setField(worker, "leaseMs", 300000L);
+        ReflectionTestUtils.setField(worker, "initialBackoffMs", INITIAL_BACKOFF_MS);
+        ReflectionTestUtils.setField(worker, "maxBackoffMs", 3600000L);
+        ReflectionTestUtils.setField(worker, "deadRetentionHours", 168L);
+        ReflectionTestUtils.setField(worker, "shutdownGraceMs", 1000L);
+        worker.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.stop();
+        backgroundJobRepository.deleteAll();
+    }
+
+    @Test
+    void enqueueUniqueKeepsOneLiveJobPerKey() {
+        assertThat(jobService.enqueueUnique(JobService.DEFAULT_QUEUE, "ok", null, "rebuild")).isTrue();
+        assertThat(jobService.enqueueUnique(JobService.DEFAULT_QUEUE, "ok", null, "rebuild")).isFalse();
+        assertThat(backgroundJobRepository.count()).isEqualTo(1);
+
+        // A dead job gives up its key so the work can be requested again
+        BackgroundJob job = backgroundJobRepository.findAll().get(0);
+        List<BackgroundJob> claimed = claim("w1", LocalDateTime.now().plusMinutes(5));
+        assertThat(claimed).extracting(BackgroundJob::getId).containsExactly(job.getId());
+        transaction.executeWithoutResult(status ->
+                backgroundJobRepository.bury(job.getId(), "w1", LocalDateTime.now(), "failed"));
+
+        assertThat(jobService.enqueueUnique(JobService.DEFAULT_QUEUE, "ok", null, "rebuild")).isTrue();
+    }
+
+    @Test
+    void concurrentClaimsSkipLockedJobs() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            jobService.enqueue(JobService.DEFAULT_QUEUE, "ok", String.valueOf(i));
+        }
+
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<BackgroundJob>> first = CompletableFuture.supplyAsync(() ->
+                transaction.execute(status -> {
+                    List<BackgroundJob> jobs = backgroundJobRepository.claim(JobService.DEFAULT_QUEUE, "w1",
+                            LocalDateTime.now(), LocalDateTime.now().plusMinutes(5), 20);
+                    claimed.countDown();
+                    await(release);
+                    return jobs;
+                }));
+        assertThat(claimed.await(10, TimeUnit.SECONDS)).isTrue();
+        BackgroundJob later = jobService.enqueue(JobService.DEFAULT_QUEUE, "ok", "3");
+
+        // The first claim has not committed; its rows are skipped rather than waited for
+        List<BackgroundJob> second = claim("w2", LocalDateTime.now().plusMinutes(5));
+        release.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).hasSize(3);
+        assertThat(second).extracting(BackgroundJob::getId).containsExactly(later.getId());
+    }
+
+    @Test
+    void expiredLeaseIsReleasedOrBuried() {
+        jobService.enqueue(JobService.DEFAULT_QUEUE, "ok", null);
+        LocalDateTime now = LocalDateTime.now();
+        BackgroundJob job = claim("crashed", now.plusSeconds(1)).get(0);
+
+        assertThat(write(() -> backgroundJobRepository.releaseExpired(now))).isZero();
+        assertThat(write(() -> backgroundJobRepository.releaseExpired(now.plusSeconds(2))))
+                .isEqualTo(1);
+        BackgroundJob released = backgroundJobRepository.findById(job.getId()).orElseThrow();
+        assertThat(released.getStatus()).isEqualTo(BackgroundJob.Status.PENDING);
+        assertThat(released.getLockedBy()).isNull();
+
+        // The second and last attempt also loses its lease
+        claim("crashed-again", now.plusSeconds(1));
+        assertThat(write(() -> backgroundJobRepository.releaseExpired(now.plusSeconds(2)))).isZero();
+        assertThat(write(() -> backgroundJobRepository.buryExpired(now.plusSeconds(2))))
+                .isEqualTo(1);
+        assertThat(backgroundJobRepository.findById(job.getId()).orElseThrow().getStatus())
+                .isEqualTo(BackgroundJob.Status.DEAD);
+
+        // The original owner coming back cannot overwrite the outcome
+        assertThat(write(() -> backgroundJobRepository.complete(job.getId(), "crashed"))).isZero();
+    }
+
+    @Test
+    void failedJobIsRetriedWithBackoffThenBuried() {
+        BackgroundJob job = jobService.enqueue(JobService.DEFAULT_QUEUE, "broken", null);
+
+        LocalDateTime beforeFirstRun = LocalDateTime.now();
+        worker.poll();
+        BackgroundJob retried = awaitJob(job.getId(), row -> row.getStatus() == BackgroundJob.Status.PENDING
+                && row.getLastError() != null);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getLastError()).isEqualTo("IllegalStateException: broken");
+        assertThat(Duration.between(beforeFirstRun, retried.getAvailableAt()).toMillis())
+                .isBetween(INITIAL_BACKOFF_MS, INITIAL_BACKOFF_MS + 5000);
+
+        // Not due yet
+        worker.poll();
+        assertThat(backgroundJobRepository.findById(job.getId()).orElseThrow().getAttempts()).isEqualTo(1);
+
+        retried.setAvailableAt(LocalDateTime.now());
+        backgroundJobRepository.save(retried);
+        worker.poll();
+        BackgroundJob dead = awaitJob(job.getId(), row -> row.getStatus() == BackgroundJob.Status.DEAD);
+        assertThat(dead.getAttempts()).isEqualTo(2);
+        assertThat(dead.getLockedBy()).isNull();
+        assertThat(handled).containsExactly("broken", "broken");
+    }
+
+    @Test
+    void successfulJobIsDeleted() {
+        BackgroundJob job = jobService.enqueue(JobService.DEFAULT_QUEUE, "ok", null);
+
+        worker.poll();
+
+        awaitCondition(() -> !backgroundJobRepository.existsById(job.getId()));
+        assertThat(handled).containsExactly("ok");
+    }
+
+    @Test
+    void jobRejectedByTheExecutorIsHandedBack() {
+        BackgroundJob job = jobService.enqueue(JobService.DEFAULT_QUEUE, "ok", null);
+        ((ExecutorService) ReflectionTestUtils.getField(worker, "executor")).shutdown();
+
+        worker.poll();
+
+        BackgroundJob released = backgroundJobRepository.findById(job.getId()).orElseThrow();
+        assertThat(released.getStatus()).isEqualTo(BackgroundJob.Status.PENDING);
+        assertThat(released.getAttempts()).isZero();
+        assertThat(released.getLockedBy()).isNull();
+        assertThat(handled).isEmpty();
+    }
+
+    private List<BackgroundJob> claim(String owner, LocalDateTime leaseUntil) {
+        return transaction.execute(status -> backgroundJobRepository.claim(
+                JobService.DEFAULT_QUEUE, owner, LocalDateTime.now(), leaseUntil, 20));
+    }
+
+    private int write(IntSupplier update) {
+        Integer count = transaction.execute(status -> update.getAsInt());
+        return count != null ? count : 0;
+    }
+
+    private BackgroundJob awaitJob(Long id, Predicate<BackgroundJob> condition) {
+        awaitCondition(() -> backgroundJobRepository.findById(id).filter(condition).isPresent());
+        return backgroundJobRepository.findById(id).orElseThrow();
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within 10 s").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Only the Oracle side; the application class would also bring up Mongo auditing
+    @SpringBootConfiguration
+    @EntityScan("com.urbanfood.api.models.oracle")
+    @EnableJpaRepositories("com.urbanfood.api.repositories.oracle")
+    static class OracleOnly {
+    }
+
+    private JobHandler handler(String type, boolean fails) {
+        return new JobHandler() {
+            @Override
+            public String getJobType() {
+                return type;
+            }
+
+            @Override
+            public void handle(BackgroundJob job) {
+                synchronized (handled) {
+                    handled.add(type);
+                }
+                if (fails) {
+                    throw new IllegalStateException(type);
+                }
+            }
+        };
+    }
+}
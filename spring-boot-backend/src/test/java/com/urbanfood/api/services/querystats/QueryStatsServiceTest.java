@@ -0,0 +1,76 @@
+package com.urbanfood.api.services.querystats;
+
+import com.urbanfood.api.services.FanOut;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryStatsServiceTest {
+    private static final String ENDPOINT = "GET /api/products/{id}";
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private QueryStatsService service;
+    private FanOut fanOut;
+
+    @BeforeEach
+    void setUp() {
+        service = new QueryStatsService();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "slowQueryMs", 200L);
+        ReflectionTestUtils.setField(service, "nPlusOneThreshold", 10);
+        fanOut = new FanOut(executor, Duration.ofSeconds(10), service::propagate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void forkedLookupsCountAgainstTheForkingRequest() {
+        service.beginRequest();
+        service.inspect("select * from products where id = 1");
+        try (FanOut.Scope scope = fanOut.open()) {
+            for (int i = 0; i < 20; i++) {
+                int reviewId = i;
+                scope.fork(() -> service.inspect("select * from reviews where id = " + reviewId));
+            }
+            scope.join();
+        }
+        service.endRequest(ENDPOINT);
+
+        Map<String, Object> stats = endpoint();
+        assertThat(stats.get("requests")).isEqualTo(1L);
+        assertThat(stats.get("statements")).isEqualTo(21L);
+        // Twenty lookups of the same shape across threads are still one request's N+1
+        assertThat(stats.get("nPlusOneRequests")).isEqualTo(1L);
+    }
+
+    @Test
+    void lookupThreadsLeaveTheScopeBehind() throws Exception {
+        service.beginRequest();
+        try (FanOut.Scope scope = fanOut.open()) {
+            scope.fork(() -> service.inspect("select 1"));
+            scope.join();
+        }
+        service.endRequest(ENDPOINT);
+
+        // Work a pool thread does afterwards for nobody in particular is not counted
+        executor.submit(() -> service.inspect("select 2")).get();
+        assertThat(endpoint().get("statements")).isEqualTo(1L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> endpoint() {
+        return (Map<String, Object>) service.getEndpointStats().get(ENDPOINT);
+    }
+}